@@ -0,0 +1,151 @@
+package ru.practicum.shareit.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.exception.ExceptionResponse;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Отсекает запросы до проксирования: 429, если у пользователя кончились токены на маршрут,
+ * и 503, если на маршруте уже обрабатывается предельное число запросов.
+ * Асинхронный запрос освобождает место на маршруте, когда ответ сервера дописан клиенту.
+ */
+@Slf4j
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final Set<String> EXEMPT_ROUTES = Set.of("actuator", "error");
+
+    private final AdmissionProperties properties;
+    private final ObjectMapper mapper;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public AdmissionFilter(AdmissionProperties properties, ObjectMapper mapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.mapper = mapper;
+        this.meterRegistry = meterRegistry;
+        // Ключ задает клиент, поэтому число корзин ограничено: перебор заголовков не раздует кучу
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.getBucketIdleTimeout())
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String route = route(request);
+        return !properties.isEnabled() || route.isEmpty() || EXEMPT_ROUTES.contains(route);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String route = route(request);
+        String user = request.getHeader("X-Sharer-User-Id");
+        String client = user != null ? user : request.getRemoteAddr();
+
+        long now = System.nanoTime();
+        long waitNanos = buckets.get(client + " " + route,
+                key -> new TokenBucket(properties.getCapacity(), properties.getRefillPerSecond(), now))
+                .tryAcquire(now);
+        if (waitNanos > 0) {
+            reject(response, route, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1,
+                    "Слишком много запросов");
+            return;
+        }
+
+        AtomicInteger counter = inFlight.computeIfAbsent(route, key -> new AtomicInteger());
+        if (counter.incrementAndGet() > properties.maxConcurrentFor(route)) {
+            counter.decrementAndGet();
+            reject(response, route, HttpStatus.SERVICE_UNAVAILABLE, 1, "Шлюз перегружен");
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                counter.decrementAndGet();
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, String route, HttpStatus status, long retryAfterSeconds,
+                        String error) throws IOException {
+        log.warn("{} {} для маршрута {}", status.value(), error, route);
+        meterRegistry.counter("gateway.admission.rejected", "route", route, "status", String.valueOf(status.value()))
+                .increment();
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        mapper.writeValue(response.getOutputStream(), new ExceptionResponse(error, status.getReasonPhrase()));
+    }
+
+    private static String route(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.substring(start) : path.substring(start, end);
+    }
+
+    private static final class ReleaseListener implements AsyncListener {
+        private final Runnable release;
+
+        private ReleaseListener(Runnable release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
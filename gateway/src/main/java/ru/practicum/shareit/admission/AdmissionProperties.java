@@ -0,0 +1,32 @@
+package ru.practicum.shareit.admission;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Допуск запросов в шлюз: корзина токенов на пару (X-Sharer-User-Id, маршрут)
+ * и предел одновременных запросов на маршрут, который можно переопределить для отдельного маршрута.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit-gateway.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    private int capacity = 50;
+    private double refillPerSecond = 20;
+    private Duration bucketIdleTimeout = Duration.ofMinutes(10);
+    private long maxBuckets = 100_000;
+    private int maxConcurrent = 200;
+    private Map<String, Integer> maxConcurrentPerRoute = new HashMap<>();
+
+    public int maxConcurrentFor(String route) {
+        return maxConcurrentPerRoute.getOrDefault(route, maxConcurrent);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Корзина токенов без блокировок: состояние неизменяемое и заменяется через compareAndSet.
+ * Токены пополняются лениво при каждой попытке по времени, прошедшему с прошлого списания.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    /**
+     * Списывает токен и возвращает 0 или, если токенов нет, сколько наносекунд ждать следующего.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            State current = state.get();
+            double tokens = Math.min(capacity, current.tokens + Math.max(0, now - current.timestamp) * refillPerNano);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / refillPerNano);
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.timestamp)))) {
+                return 0;
+            }
+        }
+    }
+
+    private static final class State {
+        private final double tokens;
+        private final long timestamp;
+
+        private State(double tokens, long timestamp) {
+            this.tokens = tokens;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -2,31 +2,40 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.RouteGuards;
+import ru.practicum.shareit.client.ServerConnectors;
 
 import java.util.Map;
 
 @Service
 public class BookingClient extends BaseClient {
+    private static final String ROUTE = "bookings";
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                         ServerConnectors connectors, ResponseCache responseCache,
+                         RouteGuards guards) {
+        super(ROUTE, builder
+                .baseUrl(serverUrl + API_PREFIX)
+                .clientConnector(connectors.forClient(ROUTE))
+                .build(),
+                responseCache,
+                guards.forRoute(ROUTE)
         );
     }
 
-    public ResponseEntity<Object> updateBooking(Long userId, Long bookingId, Boolean approved) {
+    public Mono<ResponseEntity<byte[]>> updateBooking(Long userId, Long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
@@ -34,30 +43,43 @@ public class BookingClient extends BaseClient {
         return patch(path, userId, parameters, null);
     }
 
-    public ResponseEntity<Object> bookingsByBooker(long userId, BookingStatus state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<ResponseBodyEmitter>> bookingsByBooker(long userId, BookingStatus state,
+                                                                      Integer from, Integer size, String cursor) {
+        return bookings("", userId, state, from, size, cursor);
+    }
+
+    public Mono<ResponseEntity<ResponseBodyEmitter>> bookingsByOwner(long userId, BookingStatus state,
+                                                                     Integer from, Integer size, String cursor) {
+        return bookings("/owner/", userId, state, from, size, cursor);
     }
 
-    public ResponseEntity<Object> bookingsByOwner(long userId, BookingStatus state, Integer from, Integer size) {
+    // Листинги бронирований не кэшируются, поэтому передаются клиенту потоком без сборки в памяти шлюза
+    private Mono<ResponseEntity<ResponseBodyEmitter>> bookings(String path, long userId, BookingStatus state,
+                                                               Integer from, Integer size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "cursor", cursor,
+                    "size", size
+            );
+            return stream(path + "?state={state}&cursor={cursor}&size={size}", userId, parameters,
+                    MediaType.APPLICATION_JSON);
+        }
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
         );
-        return get("/owner/?state={state}&from={from}&size={size}", userId, parameters);
+        return stream(path + "?state={state}&from={from}&size={size}", userId, parameters,
+                MediaType.APPLICATION_JSON);
     }
 
 
-    public ResponseEntity<Object> bookItem(long userId, BookingDto requestDto) {
+    public Mono<ResponseEntity<byte[]>> bookItem(long userId, BookingDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public Mono<ResponseEntity<byte[]>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
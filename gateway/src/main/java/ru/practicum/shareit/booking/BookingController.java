@@ -6,10 +6,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
@@ -22,7 +25,7 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @PostMapping
-    public ResponseEntity<Object> createBooking(
+    public Mono<ResponseEntity<byte[]>> createBooking(
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @RequestBody @Valid BookingDto requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
@@ -30,7 +33,7 @@ public class BookingController {
     }
 
     @PatchMapping(value = "/{bookingId}")
-    public ResponseEntity<Object> updateStatus(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<byte[]>> updateStatus(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                @PathVariable Long bookingId,
                                                @RequestParam Boolean approved) {
         log.info("Updated booking={} by user={}", bookingId, userId);
@@ -38,7 +41,7 @@ public class BookingController {
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(
+    public Mono<ResponseEntity<byte[]>> getBooking(
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
@@ -46,26 +49,32 @@ public class BookingController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> bookingsByBooker(
+    public Mono<ResponseEntity<ResponseBodyEmitter>> bookingsByBooker(
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @PositiveOrZero @RequestParam(defaultValue = "0", required = false) Integer from,
-            @Positive @RequestParam(defaultValue = "10", required = false) Integer size) {
+            @Positive @RequestParam(defaultValue = "10", required = false) Integer size,
+            @Pattern(regexp = "[A-Za-z0-9_-]*")
+            @RequestParam(required = false) String cursor) {
         BookingStatus status = BookingStatus.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-        log.info("Get booking with status {}, userId={}, from={}, size={}", status, userId, from, size);
-        return bookingClient.bookingsByBooker(userId, status, from, size);
+        log.info("Get booking with status {}, userId={}, from={}, size={}, cursor={}",
+                status, userId, from, size, cursor);
+        return bookingClient.bookingsByBooker(userId, status, from, size, cursor);
     }
 
     @GetMapping(value = "/owner")
-    public ResponseEntity<Object> bookingsByOwner(
+    public Mono<ResponseEntity<ResponseBodyEmitter>> bookingsByOwner(
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-            @Positive @RequestParam(defaultValue = "10") Integer size) {
+            @Positive @RequestParam(defaultValue = "10") Integer size,
+            @Pattern(regexp = "[A-Za-z0-9_-]*")
+            @RequestParam(required = false) String cursor) {
         BookingStatus status = BookingStatus.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-        log.info("Get booking by owner with status {}, userId={}, from={}, size={}", status, userId, from, size);
-        return bookingClient.bookingsByOwner(userId, status, from, size);
+        log.info("Get booking by owner with status {}, userId={}, from={}, size={}, cursor={}",
+                status, userId, from, size, cursor);
+        return bookingClient.bookingsByOwner(userId, status, from, size, cursor);
     }
 }
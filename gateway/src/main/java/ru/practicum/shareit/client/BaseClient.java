@@ -1,94 +1,210 @@
 package ru.practicum.shareit.client;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
-
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 public class BaseClient {
-    protected final RestTemplate rest;
-
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
-    }
-
-    protected ResponseEntity<Object> get(String path) {
+    /**
+     * Предел size для листингов, которые шлюз собирает в памяти целиком, чтобы кэшировать и объединять:
+     * страница должна уместиться в spring.codec.max-in-memory-size.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(
+            HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH, "Keep-Alive");
+
+    protected final WebClient web;
+    private final String route;
+    private final ResponseCache responseCache;
+    private final RouteGuard guard;
+    private final ConcurrentMap<String, Mono<ResponseEntity<byte[]>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public BaseClient(String route, WebClient web, ResponseCache responseCache, RouteGuard guard) {
+        this.route = route;
+        this.web = web;
+        this.responseCache = responseCache;
+        this.guard = guard;
+        this.coalesced = Metrics.counter("gateway.requests.coalesced", "route", route);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<byte[]>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<byte[]>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<byte[]>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<byte[]>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<byte[]>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-
-        ResponseEntity<Object> shareitServerResponse;
+    /**
+     * Проксирует ответ сервера клиенту по мере поступления, не собирая тело в памяти шлюза.
+     * Такие ответы не кэшируются и не объединяются; запись в сокет клиента идет вне потоков Netty.
+     */
+    protected Mono<ResponseEntity<ResponseBodyEmitter>> stream(String path, @Nullable Long userId, MediaType accept) {
+        return stream(path, userId, null, accept);
+    }
+
+    protected Mono<ResponseEntity<ResponseBodyEmitter>> stream(String path, @Nullable Long userId,
+                                                               @Nullable Map<String, Object> parameters,
+                                                               MediaType accept) {
+        return guard.protectStream(web.get()
+                        .uri(path, parameters != null ? parameters : Map.of())
+                        .headers(headers -> headers.addAll(defaultHeaders(userId)))
+                        .accept(accept)
+                        .retrieve()
+                        // Ответ с ошибкой тоже передается клиенту как есть
+                        .onStatus(status -> true, response -> Mono.empty())
+                        .toEntityFlux(DataBuffer.class))
+                .map(response -> {
+                    ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+                    Disposable subscription = response.getBody()
+                            .publishOn(Schedulers.boundedElastic())
+                            .subscribe(buffer -> send(emitter, buffer), emitter::completeWithError, emitter::complete);
+                    emitter.onCompletion(subscription::dispose);
+                    emitter.onError(error -> subscription.dispose());
+
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.addAll(response.getHeaders());
+                    HOP_BY_HOP_HEADERS.forEach(headers::remove);
+                    return new ResponseEntity<>(emitter, headers, response.getStatusCode());
+                });
+    }
+
+    private static void send(ResponseBodyEmitter emitter, DataBuffer buffer) {
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            emitter.send(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private <T> Mono<ResponseEntity<byte[]>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        if (method == HttpMethod.GET) {
+            return Mono.defer(() -> {
+                String key = cacheKey(path, userId, parameters);
+                ResponseEntity<byte[]> cached = responseCache.get(route, key);
+                if (cached != null) {
+                    return Mono.just(cached);
+                }
+                // GET после успешного изменения маршрута не присоединяется к запросу, начатому до изменения
+                long generation = responseCache.generation(route);
+                return singleFlight(generation + " " + key, () -> exchange(method, path, userId, parameters, null)
+                        .doOnNext(response -> responseCache.put(route, key, generation, response)));
+            });
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return exchange(method, path, userId, parameters, body)
+                .doOnNext(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        responseCache.invalidate(route);
+                    }
+                });
+    }
+
+    // Одинаковые GET, пришедшие пока запрос к серверу еще не завершен, получают его результат
+    private Mono<ResponseEntity<byte[]>> singleFlight(String key,
+                                                      Supplier<Mono<ResponseEntity<byte[]>>> upstream) {
+        boolean[] leader = {false};
+        Mono<ResponseEntity<byte[]>> flight = inFlight.computeIfAbsent(key, k -> {
+            leader[0] = true;
+            return upstream.get()
+                    .doFinally(signal -> inFlight.remove(k))
+                    .cache();
+        });
+        if (!leader[0]) {
+            coalesced.increment();
+        }
+        return flight;
+    }
+
+    private <T> Mono<ResponseEntity<byte[]>> exchange(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        WebClient.RequestBodySpec request = web.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(defaultHeaders(userId)));
+        WebClient.RequestHeadersSpec<?> exchange = body != null ? request.bodyValue(body) : request;
+
+        return guard.protect(exchange.exchangeToMono(response -> response.toEntity(byte[].class))
+                .map(BaseClient::prepareGatewayResponse));
+    }
+
+    private static String cacheKey(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        String uri = UriComponentsBuilder.fromUriString(path)
+                .buildAndExpand(parameters != null ? parameters : Map.of())
+                .toUriString();
+        return userId + " " + uri;
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -101,13 +217,22 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
+    // Тело передается клиенту байт в байт без разбора JSON; длину и кодирование передачи выставит сам шлюз
+    private static ResponseEntity<byte[]> prepareGatewayResponse(ResponseEntity<byte[]> response) {
         if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+            HttpHeaders headers = new HttpHeaders();
+            headers.addAll(response.getHeaders());
+            HOP_BY_HOP_HEADERS.forEach(headers::remove);
+            return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
         }
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
 
+        MediaType contentType = response.getHeaders().getContentType();
+        if (contentType != null) {
+            responseBuilder.contentType(contentType);
+        }
+
         if (response.hasBody()) {
             return responseBuilder.body(response.getBody());
         }
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Автоматический выключатель одного маршрута со скользящим окном по числу вызовов.
+ * CLOSED - вызовы проходят и учитываются в окне; OPEN - вызовы отклоняются до истечения openDuration;
+ * HALF_OPEN - проходят только пробные вызовы, их успех замыкает выключатель, первая неудача снова размыкает.
+ * Каждый переход начинает новую эпоху; результат вызова, допущенного в прошлой эпохе, не учитывается,
+ * поэтому пробными считаются только вызовы, допущенные в текущем HALF_OPEN.
+ * Все переходы под монитором объекта: он захватывается дважды на вызов, что несопоставимо дешевле самого вызова.
+ */
+@Slf4j
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    static final long REJECTED = -1;
+
+    private final String route;
+    private final RouteGuardProperties properties;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final boolean[] failures;
+    private final boolean[] slowCalls;
+
+    private State state = State.CLOSED;
+    private int calls;
+    private int next;
+    private int failureCount;
+    private int slowCount;
+    private long openedAt;
+    private long epoch;
+    private int probesIssued;
+    private int probesSucceeded;
+
+    CircuitBreaker(String route, RouteGuardProperties properties) {
+        this.route = route;
+        this.properties = properties;
+        this.slowCallNanos = properties.getSlowCallDuration().toNanos();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.failures = new boolean[properties.getWindowSize()];
+        this.slowCalls = new boolean[properties.getWindowSize()];
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Разрешает вызов и возвращает эпоху, которую нужно передать с его результатом,
+     * или REJECTED, если выключатель разомкнут или пробные вызовы уже выданы.
+     */
+    synchronized long tryAcquire(long now) {
+        if (state == State.OPEN && now - openedAt >= openNanos) {
+            transition(State.HALF_OPEN);
+            probesIssued = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.CLOSED) {
+            return epoch;
+        }
+        if (state == State.HALF_OPEN && probesIssued < properties.getHalfOpenProbes()) {
+            probesIssued++;
+            return epoch;
+        }
+        return REJECTED;
+    }
+
+    synchronized void onResult(long now, long durationNanos, boolean failed, long callEpoch) {
+        if (callEpoch != epoch) {
+            return;
+        }
+        boolean slow = durationNanos >= slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                open(now);
+            } else if (++probesSucceeded >= properties.getHalfOpenProbes()) {
+                transition(State.CLOSED);
+                resetWindow();
+            }
+        } else if (state == State.CLOSED) {
+            record(failed, slow);
+            if (calls >= properties.getMinimumCalls()
+                    && (failureCount * 100 >= properties.getFailureRateThreshold() * calls
+                    || slowCount * 100 >= properties.getSlowCallRateThreshold() * calls)) {
+                open(now);
+            }
+        }
+    }
+
+    /**
+     * Вызов отменен клиентом до ответа сервера: пробный вызов возвращается, в окне ничего не учитывается.
+     */
+    synchronized void onCancel(long callEpoch) {
+        if (callEpoch == epoch && state == State.HALF_OPEN) {
+            probesIssued--;
+        }
+    }
+
+    synchronized long retryAfterSeconds(long now) {
+        long remaining = state == State.OPEN ? openNanos - (now - openedAt) : 0;
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining) + 1);
+    }
+
+    private void record(boolean failed, boolean slow) {
+        if (calls == failures.length) {
+            failureCount -= failures[next] ? 1 : 0;
+            slowCount -= slowCalls[next] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        failures[next] = failed;
+        slowCalls[next] = slow;
+        failureCount += failed ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        next = (next + 1) % failures.length;
+    }
+
+    private void open(long now) {
+        transition(State.OPEN);
+        openedAt = now;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        calls = 0;
+        next = 0;
+        failureCount = 0;
+        slowCount = 0;
+    }
+
+    private void transition(State target) {
+        log.warn("Выключатель маршрута {}: {} -> {}", route, state, target);
+        state = target;
+        epoch++;
+    }
+}
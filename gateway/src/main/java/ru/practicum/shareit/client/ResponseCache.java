@@ -0,0 +1,74 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограниченный по размеру кэш успешных GET-ответов сервера, отдельный для каждого маршрута со своим TTL.
+ * Каждый сброс маршрута увеличивает его поколение: ответ на запрос, начатый до сброса, в кэш уже не попадет.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCache {
+
+    private final ResponseCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Cache<String, ResponseEntity<byte[]>>> caches = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public ResponseEntity<byte[]> get(String route, String key) {
+        Cache<String, ResponseEntity<byte[]>> cache = cache(route);
+        return cache == null ? null : cache.getIfPresent(key);
+    }
+
+    public long generation(String route) {
+        return generations.computeIfAbsent(route, name -> new AtomicLong()).get();
+    }
+
+    public void put(String route, String key, long generation, ResponseEntity<byte[]> response) {
+        Cache<String, ResponseEntity<byte[]>> cache = cache(route);
+        if (cache != null && response.getStatusCode().is2xxSuccessful() && generation(route) == generation) {
+            cache.put(key, response);
+            // Сброс мог пройти между проверкой и записью и не застать ответ в кэше
+            if (generation(route) != generation) {
+                cache.asMap().remove(key, response);
+            }
+        }
+    }
+
+    public void invalidate(String route) {
+        for (String evicted : properties.getEvicts().getOrDefault(route, List.of(route))) {
+            generations.computeIfAbsent(evicted, name -> new AtomicLong()).incrementAndGet();
+            Cache<String, ResponseEntity<byte[]>> cache = caches.get(evicted);
+            if (cache != null) {
+                cache.invalidateAll();
+            }
+        }
+    }
+
+    private Cache<String, ResponseEntity<byte[]>> cache(String route) {
+        Duration ttl = properties.getTtl().get(route);
+        if (ttl == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(route, name -> {
+            Cache<String, ResponseEntity<byte[]>> cache = Caffeine.newBuilder()
+                    .maximumSize(properties.getMaximumSize())
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+            return CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.responses", "route", name);
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Кэш GET-ответов шлюза. Маршрут кэшируется, только если для него задан TTL.
+ * Успешный POST/PATCH/PUT/DELETE по маршруту сбрасывает маршруты из evicts (по умолчанию только его самого).
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit-server.cache")
+public class ResponseCacheProperties {
+    private long maximumSize = 10000;
+    private Map<String, Duration> ttl = new HashMap<>();
+    private Map<String, List<String>> evicts = new HashMap<>();
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulkhead и выключатель одного маршрута. Вызов сервера занимает место в bulkhead на все время до ответа;
+ * если мест нет или выключатель разомкнут, запрос сразу завершается 503, не дожидаясь сервера.
+ * Ошибкой считается ответ 5xx или сбой соединения, медленным - ответ дольше slowCallDuration.
+ */
+public class RouteGuard {
+
+    private final String route;
+    private final boolean enabled;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker breaker;
+    private final Counter bulkheadRejected;
+    private final Counter circuitRejected;
+
+    RouteGuard(String route, RouteGuardProperties properties, MeterRegistry meterRegistry) {
+        this.route = route;
+        this.enabled = properties.isEnabled();
+        int maxConcurrent = properties.maxConcurrentFor(route);
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.breaker = new CircuitBreaker(route, properties);
+        this.bulkheadRejected = meterRegistry.counter("gateway.guard.rejected", "route", route, "reason", "bulkhead");
+        this.circuitRejected = meterRegistry.counter("gateway.guard.rejected", "route", route, "reason", "circuit");
+        meterRegistry.gauge("gateway.guard.active", Tags.of("route", route),
+                bulkhead, semaphore -> maxConcurrent - semaphore.availablePermits());
+        meterRegistry.gauge("gateway.guard.circuit.state", Tags.of("route", route),
+                breaker, circuit -> circuit.getState().ordinal());
+    }
+
+    public <T> Mono<ResponseEntity<T>> protect(Mono<ResponseEntity<T>> call) {
+        if (!enabled) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            Permit permit = acquire();
+            return call
+                    .doOnNext(response -> permit.record(response.getStatusCode().is5xxServerError(),
+                            System.nanoTime()))
+                    .doOnError(error -> permit.record(true, System.nanoTime()))
+                    .doFinally(permit::finish);
+        });
+    }
+
+    /**
+     * Как protect, но место в bulkhead занято до конца передачи тела, а результат учитывается по его завершении:
+     * ошибкой считается и обрыв тела. Медленным вызов считается по времени до заголовков ответа.
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> protectStream(Mono<ResponseEntity<Flux<DataBuffer>>> call) {
+        if (!enabled) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            Permit permit = acquire();
+            AtomicBoolean bodyStarted = new AtomicBoolean();
+            return call
+                    .map(response -> {
+                        long respondedAt = System.nanoTime();
+                        boolean failed = response.getStatusCode().is5xxServerError();
+                        Flux<DataBuffer> body = response.getBody() != null ? response.getBody() : Flux.empty();
+                        bodyStarted.set(true);
+                        return new ResponseEntity<>(body
+                                .doOnComplete(() -> permit.record(failed, respondedAt))
+                                .doOnError(error -> permit.record(true, respondedAt))
+                                .doFinally(permit::finish), response.getHeaders(), response.getStatusCode());
+                    })
+                    .doOnError(error -> permit.record(true, System.nanoTime()))
+                    .doFinally(signal -> {
+                        if (!bodyStarted.get()) {
+                            permit.finish(signal);
+                        }
+                    });
+        });
+    }
+
+    private Permit acquire() {
+        if (!bulkhead.tryAcquire()) {
+            bulkheadRejected.increment();
+            throw new ServiceUnavailableException(
+                    "Слишком много одновременных запросов к серверу по маршруту " + route, 1);
+        }
+        long start = System.nanoTime();
+        long epoch = breaker.tryAcquire(start);
+        if (epoch == CircuitBreaker.REJECTED) {
+            bulkhead.release();
+            circuitRejected.increment();
+            throw new ServiceUnavailableException(
+                    "Сервер не справляется с запросами по маршруту " + route, breaker.retryAfterSeconds(start));
+        }
+        return new Permit(start, epoch);
+    }
+
+    // Разрешение на один вызов: результат учитывается и место в bulkhead освобождается ровно один раз
+    private final class Permit {
+        private final long start;
+        private final long epoch;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long start, long epoch) {
+            this.start = start;
+            this.epoch = epoch;
+        }
+
+        private void record(boolean failed, long respondedAt) {
+            if (recorded.compareAndSet(false, true)) {
+                breaker.onResult(System.nanoTime(), respondedAt - start, failed, epoch);
+            }
+        }
+
+        private void finish(SignalType signal) {
+            if (signal == SignalType.CANCEL && recorded.compareAndSet(false, true)) {
+                breaker.onCancel(epoch);
+            }
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        }
+    }
+}
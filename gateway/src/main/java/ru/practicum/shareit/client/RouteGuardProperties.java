@@ -0,0 +1,36 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Защита маршрутов к серверу: предел одновременных вызовов (bulkhead) и автоматический выключатель.
+ * Выключатель размыкается, когда среди последних windowSize вызовов доля ошибок или медленных ответов
+ * достигает порога, и через openDuration пропускает halfOpenProbes пробных вызовов.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit-server.guard")
+public class RouteGuardProperties {
+    private boolean enabled = true;
+    private int maxConcurrent = 50;
+    private Map<String, Integer> maxConcurrentPerRoute = new HashMap<>();
+    private int windowSize = 20;
+    private int minimumCalls = 10;
+    private int failureRateThreshold = 50;
+    private Duration slowCallDuration = Duration.ofSeconds(2);
+    private int slowCallRateThreshold = 80;
+    private Duration openDuration = Duration.ofSeconds(10);
+    private int halfOpenProbes = 3;
+
+    public int maxConcurrentFor(String route) {
+        return maxConcurrentPerRoute.getOrDefault(route, maxConcurrent);
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Выдает каждому клиенту сервера собственные bulkhead и выключатель, чтобы медленный маршрут
+ * не занимал соединения и потоки, нужные остальным.
+ */
+@Component
+@RequiredArgsConstructor
+public class RouteGuards {
+
+    private final RouteGuardProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public RouteGuard forRoute(String route) {
+        return new RouteGuard(route, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Неблокирующие коннекторы Reactor Netty к серверу. Соединения переиспользуются через keep-alive,
+ * простаивающие закрываются фоновым вытеснением. Пул ограничивает число соединений на один адрес сервера.
+ * Метрики пула и запросов публикуются в Micrometer с префиксом reactor.netty.
+ */
+@Component
+public class ServerConnectors implements DisposableBean {
+
+    private static final String SHARED_POOL = "shareit-server";
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+");
+
+    private final ServerPoolProperties properties;
+    private final List<ConnectionProvider> providers = new CopyOnWriteArrayList<>();
+    private final ClientHttpConnector shared;
+
+    public ServerConnectors(ServerPoolProperties properties) {
+        this.properties = properties;
+        this.shared = connector(SHARED_POOL, properties.getMaxConnections());
+    }
+
+    public ClientHttpConnector forClient(String client) {
+        Integer maxConnections = properties.getMaxConnectionsPerClient().get(client);
+        return maxConnections == null ? shared : connector(SHARED_POOL + "-" + client, maxConnections);
+    }
+
+    @Override
+    public void destroy() {
+        providers.forEach(ConnectionProvider::dispose);
+    }
+
+    private ClientHttpConnector connector(String name, int maxConnections) {
+        ConnectionProvider provider = ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getEvictionInterval())
+                .metrics(properties.isMetrics())
+                .build();
+        providers.add(provider);
+
+        HttpClient client = HttpClient.create(provider)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout())
+                .metrics(properties.isMetrics(), uri -> ID_SEGMENT.matcher(uri).replaceAll("/{id}"));
+        if (properties.isHttp2()) {
+            client = client.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return new ReactorClientHttpConnector(client);
+    }
+}
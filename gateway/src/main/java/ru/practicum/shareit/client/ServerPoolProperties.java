@@ -0,0 +1,32 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки соединений шлюза с сервером. Все клиенты делят один пул, пока для клиента не задан
+ * собственный размер, например shareit-server.pool.max-connections-per-client.bookings=200.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit-server.pool")
+public class ServerPoolProperties {
+    private int maxConnections = 100;
+    private int pendingAcquireMaxCount = 1000;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration maxLifeTime = Duration.ofMinutes(10);
+    private Duration evictionInterval = Duration.ofSeconds(30);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(30);
+    private boolean http2 = false;
+    private boolean metrics = true;
+    private Map<String, Integer> maxConnectionsPerClient = new HashMap<>();
+}
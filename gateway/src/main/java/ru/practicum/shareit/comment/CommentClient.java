@@ -2,29 +2,36 @@ package ru.practicum.shareit.comment;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.RouteGuards;
+import ru.practicum.shareit.client.ServerConnectors;
 import ru.practicum.shareit.comment.dto.CommentDto;
 
 @Service
 public class CommentClient extends BaseClient {
 
+    private static final String ROUTE = "comments";
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public CommentClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
+    public CommentClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                         ServerConnectors connectors, ResponseCache responseCache,
+                         RouteGuards guards) {
+        super(ROUTE, builder
+                .baseUrl(serverUrl + API_PREFIX)
+                .clientConnector(connectors.forClient(ROUTE))
+                .build(),
+                responseCache,
+                guards.forRoute(ROUTE)
         );
     }
 
-    public ResponseEntity<Object> postComment(Long userId, Long itemId, CommentDto commentDto) {
+    public Mono<ResponseEntity<byte[]>> postComment(Long userId, Long itemId, CommentDto commentDto) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 }
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.validation.ConstraintViolationException;
+
 @Slf4j
 @RestControllerAdvice
 public class ExceptionHandler {
@@ -23,6 +27,13 @@ public class ExceptionHandler {
         return new ExceptionResponse(e.getMessage(), "Неверный запрос");
     }
 
+    @org.springframework.web.bind.annotation.ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ExceptionResponse handleConstraintViolationException(final ConstraintViolationException e) {
+        log.warn("400 {}", e.getMessage(), e);
+        return new ExceptionResponse(e.getMessage(), "Неверный запрос");
+    }
+
     @org.springframework.web.bind.annotation.ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ExceptionResponse handleRuntimeException(final RuntimeException e) {
@@ -36,4 +47,12 @@ public class ExceptionHandler {
         log.warn("409 {}", e.getMessage(), e);
         return new ExceptionResponse(e.getMessage(), "Внутренний конфликт");
     }
+
+    @org.springframework.web.bind.annotation.ExceptionHandler
+    public ResponseEntity<ExceptionResponse> handleServiceUnavailableException(final ServiceUnavailableException e) {
+        log.warn("503 {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ExceptionResponse(e.getMessage(), "Сервер недоступен"));
+    }
 }
\ No newline at end of file
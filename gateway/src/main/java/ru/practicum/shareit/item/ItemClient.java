@@ -2,47 +2,77 @@ package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.RouteGuards;
+import ru.practicum.shareit.client.ServerConnectors;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class ItemClient extends BaseClient {
 
+    private static final String ROUTE = "items";
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      ServerConnectors connectors, ResponseCache responseCache,
+                      RouteGuards guards) {
+        super(ROUTE, builder
+                .baseUrl(serverUrl + API_PREFIX)
+                .clientConnector(connectors.forClient(ROUTE))
+                .build(),
+                responseCache,
+                guards.forRoute(ROUTE)
         );
     }
 
-    public ResponseEntity<Object> createItem(Long userId, ItemDto itemDto) {
+    public Mono<ResponseEntity<byte[]>> createItem(Long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> updateItem(Long userId, Long itemId, ItemDto itemDto) {
+    public Mono<ResponseEntity<byte[]>> createItems(Long userId, List<ItemDto> itemDtos) {
+        return post("/batch", userId, itemDtos);
+    }
+
+    public Mono<ResponseEntity<byte[]>> updateItem(Long userId, Long itemId, ItemDto itemDto) {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> getItem(Long userId, Long itemId) {
+    public Mono<ResponseEntity<byte[]>> getItem(Long userId, Long itemId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getUserItems(Long userId, Integer from, Integer size) {
-        String query = "?from=" + from;
+    public Mono<ResponseEntity<byte[]>> getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        StringBuilder path = new StringBuilder("/" + itemId + "/availability");
+        Map<String, Object> parameters = new HashMap<>();
+        if (from != null) {
+            parameters.put("from", from.toString());
+            path.append("?from={from}");
+        }
+        if (to != null) {
+            parameters.put("to", to.toString());
+            path.append(from != null ? "&" : "?").append("to={to}");
+        }
+        return get(path.toString(), userId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getUserItems(Long userId, Integer from, Integer size, String cursor) {
+        String query = cursor != null ? "?cursor=" + cursor : "?from=" + from;
         query = sizeNullValidation(query, size);
         return get(query, userId);
     }
 
-    public ResponseEntity<Object> searchItem(String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<byte[]>> searchItem(String text, Integer from, Integer size) {
         String query = "/search?text=" + text + "&from=" + from;
         query = sizeNullValidation(query, size);
         return get(query);
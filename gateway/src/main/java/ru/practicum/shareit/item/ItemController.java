@@ -2,17 +2,24 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.comment.CommentClient;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.utility.Create;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Slf4j
 @Controller
@@ -25,14 +32,21 @@ public class ItemController {
     private final CommentClient commentClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<byte[]>> createItem(@RequestHeader("X-Sharer-User-Id") Long userId,
                                              @Validated({Create.class}) @RequestBody ItemDto itemDto) {
         log.info("User {}, created item {}", userId, itemDto.getName());
         return itemClient.createItem(userId, itemDto);
     }
 
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<byte[]>> createItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                              @RequestBody List<ItemDto> itemDtos) {
+        log.info("User {}, created batch of {} items", userId, itemDtos.size());
+        return itemClient.createItems(userId, itemDtos);
+    }
+
     @PatchMapping(value = "/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<byte[]>> updateItem(@RequestHeader("X-Sharer-User-Id") Long userId,
                                              @PathVariable Long itemId,
                                              @RequestBody ItemDto itemDto) {
         log.info("User {} updated item {}", userId, itemDto);
@@ -40,31 +54,48 @@ public class ItemController {
     }
 
     @GetMapping(value = "/{itemId}")
-    public ResponseEntity<Object> getItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<byte[]>> getItem(@RequestHeader("X-Sharer-User-Id") Long userId,
                                           @PathVariable Long itemId) {
         log.info("User {}, got item {}", userId, itemId);
         return itemClient.getItem(userId, itemId);
     }
 
+    @GetMapping(value = "/{itemId}/availability")
+    public Mono<ResponseEntity<byte[]>> getAvailability(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                  @PathVariable Long itemId,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime from,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime to) {
+        log.info("User {}, got availability of item {}", userId, itemId);
+        return itemClient.getAvailability(userId, itemId, from, to);
+    }
+
     @GetMapping
-    public ResponseEntity<Object> getUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<byte[]>> getUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                               @Positive @RequestParam(defaultValue = "10") int size) {
+                                               @Positive @Max(BaseClient.MAX_PAGE_SIZE)
+                                               @RequestParam(defaultValue = "10") int size,
+                                               @Pattern(regexp = "[A-Za-z0-9_-]*")
+                                               @RequestParam(required = false) String cursor) {
         log.info("Got all items of user {}", userId);
-        return itemClient.getUserItems(userId, from, size);
+        return itemClient.getUserItems(userId, from, size, cursor);
     }
 
     @GetMapping(value = "/search")
-    public ResponseEntity<Object> searchItems(@RequestParam String text,
+    public Mono<ResponseEntity<byte[]>> searchItems(@RequestParam String text,
                                               @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                              @Positive @RequestParam(defaultValue = "10") int size) {
+                                              @Positive @Max(BaseClient.MAX_PAGE_SIZE)
+                                              @RequestParam(defaultValue = "10") int size) {
         log.info("Found items with query {}", text);
         return itemClient.searchItem(text, from, size);
     }
 
     @ResponseBody
     @PostMapping(value = "/{itemId}/comment")
-    public ResponseEntity<Object> postComment(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<byte[]>> postComment(@RequestHeader("X-Sharer-User-Id") Long userId,
                                               @PathVariable Long itemId,
                                               @RequestBody CommentDto commentDto) {
         log.info("User {} left comment {}", userId, commentDto);
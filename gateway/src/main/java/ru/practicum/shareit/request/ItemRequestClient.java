@@ -2,42 +2,49 @@ package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.RouteGuards;
+import ru.practicum.shareit.client.ServerConnectors;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 @Service
 public class ItemRequestClient extends BaseClient {
 
+    private static final String ROUTE = "requests";
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                             ServerConnectors connectors, ResponseCache responseCache,
+                             RouteGuards guards) {
+        super(ROUTE, builder
+                .baseUrl(serverUrl + API_PREFIX)
+                .clientConnector(connectors.forClient(ROUTE))
+                .build(),
+                responseCache,
+                guards.forRoute(ROUTE)
         );
     }
 
-    public ResponseEntity<Object> createItemRequest(Long userId, ItemRequestDto reqDto) {
+    public Mono<ResponseEntity<byte[]>> createItemRequest(Long userId, ItemRequestDto reqDto) {
         return post("", userId, reqDto);
     }
 
-    public ResponseEntity<Object> getItemRequestById(Long userId, Long reqId) {
+    public Mono<ResponseEntity<byte[]>> getItemRequestById(Long userId, Long reqId) {
         return get("/" + reqId, userId);
     }
 
-    public ResponseEntity<Object> getUserItemRequests(Long userId) {
+    public Mono<ResponseEntity<byte[]>> getUserItemRequests(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllItemRequests(Long userId, Integer from, Integer size) {
-        String path = "/all" + "?from=" + from;
+    public Mono<ResponseEntity<byte[]>> getAllItemRequests(Long userId, Integer from, Integer size, String cursor) {
+        String path = cursor != null ? "/all" + "?cursor=" + cursor : "/all" + "?from=" + from;
         if (size != null) {
             path += "&size=" + size;
         }
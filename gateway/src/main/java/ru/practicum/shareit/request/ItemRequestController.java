@@ -6,8 +6,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
@@ -21,30 +25,33 @@ public class ItemRequestController {
     private final ItemRequestClient requestClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItemRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<byte[]>> createItemRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                     @RequestBody ItemRequestDto reqDto) {
         log.info("User {} made request {}", userId, reqDto);
         return requestClient.createItemRequest(userId, reqDto);
     }
 
     @GetMapping(value = "/{reqId}")
-    public ResponseEntity<Object> getItemRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<byte[]>> getItemRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                      @PathVariable Long reqId) {
         log.info("User {}, got request {}", userId, reqId);
         return requestClient.getItemRequestById(userId, reqId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUserItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public Mono<ResponseEntity<byte[]>> getUserItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Got item requests of User {}", userId);
         return requestClient.getUserItemRequests(userId);
     }
 
     @GetMapping(value = "/all")
-    public ResponseEntity<Object> getAllItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<byte[]>> getAllItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                      @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                     @Positive @RequestParam(defaultValue = "10") int size) {
+                                                     @Positive @Max(BaseClient.MAX_PAGE_SIZE)
+                                                     @RequestParam(defaultValue = "10") int size,
+                                                     @Pattern(regexp = "[A-Za-z0-9_-]*")
+                                                     @RequestParam(required = false) String cursor) {
         log.info("User {}, got all requests", userId);
-        return requestClient.getAllItemRequests(userId, from, size);
+        return requestClient.getAllItemRequests(userId, from, size, cursor);
     }
 }
\ No newline at end of file
@@ -2,45 +2,65 @@ package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.RouteGuards;
+import ru.practicum.shareit.client.ServerConnectors;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.List;
+
 @Service
 public class UserClient extends BaseClient {
 
+    private static final String ROUTE = "users";
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      ServerConnectors connectors, ResponseCache responseCache,
+                      RouteGuards guards) {
+        super(ROUTE, builder
+                .baseUrl(serverUrl + API_PREFIX)
+                .clientConnector(connectors.forClient(ROUTE))
+                .build(),
+                responseCache,
+                guards.forRoute(ROUTE)
         );
     }
 
-    public ResponseEntity<Object> createUser(UserDto userDto) {
+    public Mono<ResponseEntity<byte[]>> createUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> updateUser(Long userId, UserDto userDto) {
+    public Mono<ResponseEntity<byte[]>> createUsers(List<UserDto> userDtos) {
+        return post("/batch", userDtos);
+    }
+
+    public Mono<ResponseEntity<byte[]>> updateUser(Long userId, UserDto userDto) {
         return patch("/" + userId, userDto);
     }
 
-    public ResponseEntity<Object> getUser(Long userId) {
+    public Mono<ResponseEntity<byte[]>> getUser(Long userId) {
         return get("/" + userId);
     }
 
-    public ResponseEntity<Object> getAllUsers() {
-        return get("");
+    public Mono<ResponseEntity<byte[]>> getAllUsers(Integer from, Integer size, String cursor) {
+        String query = (cursor != null ? "?cursor=" + cursor : "?from=" + from) + "&size=" + size;
+        return get(query);
+    }
+
+    public Mono<ResponseEntity<ResponseBodyEmitter>> exportUsers(MediaType accept) {
+        return stream("", null, accept);
     }
 
-    public ResponseEntity<Object> delete(Long userId) {
+    public Mono<ResponseEntity<byte[]>> delete(Long userId) {
         return delete("/" + userId);
     }
 
@@ -2,13 +2,24 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.utility.Create;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.List;
+
 @Slf4j
 @Controller
 @Validated
@@ -19,32 +30,51 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@Validated({Create.class}) @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<byte[]>> createUser(@Validated({Create.class}) @RequestBody UserDto userDto) {
         log.info("User created=id{}", userDto);
         return userClient.createUser(userDto);
     }
 
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<byte[]>> createUsers(@RequestBody List<UserDto> userDtos) {
+        log.info("Created batch of {} users", userDtos.size());
+        return userClient.createUsers(userDtos);
+    }
+
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@PathVariable Long userId,
+    public Mono<ResponseEntity<byte[]>> updateUser(@PathVariable Long userId,
                                              @RequestBody UserDto userDto) {
         log.info("User {} updated: {}", userId, userDto);
         return userClient.updateUser(userId, userDto);
     }
 
     @GetMapping(value = {"/{userId}"})
-    public ResponseEntity<Object> getUser(@PathVariable Long userId) {
+    public Mono<ResponseEntity<byte[]>> getUser(@PathVariable Long userId) {
         log.info("Got user {}", userId);
         return userClient.getUser(userId);
     }
 
+    @GetMapping(params = {"!from", "!size", "!cursor"})
+    public Mono<ResponseEntity<ResponseBodyEmitter>> exportUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        log.info("Exported all users");
+        return userClient.exportUsers(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON);
+    }
+
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
-        log.info("Got all users");
-        return userClient.getAllUsers();
+    public Mono<ResponseEntity<byte[]>> getAllUsers(@PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                    @Positive @Max(BaseClient.MAX_PAGE_SIZE)
+                                                    @RequestParam(defaultValue = "10") int size,
+                                                    @Pattern(regexp = "[A-Za-z0-9_-]*")
+                                                    @RequestParam(required = false) String cursor) {
+        log.info("Got users from {} size {}", from, size);
+        return userClient.getAllUsers(from, size, cursor);
     }
 
     @DeleteMapping(value = "{userId}")
-    public ResponseEntity<Object> delete(@PathVariable Long userId) {
+    public Mono<ResponseEntity<byte[]>> delete(@PathVariable Long userId) {
         log.info("User {} deleted", userId);
         return userClient.delete(userId);
     }
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionFilterTest {
+
+    private AdmissionProperties properties;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AdmissionProperties();
+        properties.setMaxConcurrentPerRoute(Map.of("items", 1));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void emptyBucketAnswersTooManyRequestsWithRetryAfterTest() throws Exception {
+        properties.setCapacity(2);
+        properties.setRefillPerSecond(0.1);
+        AdmissionFilter filter = filter();
+
+        assertEquals(200, send(filter, "/users", "1", (request, response) -> { }).getStatus());
+        assertEquals(200, send(filter, "/users", "1", (request, response) -> { }).getStatus());
+        MockHttpServletResponse rejected = send(filter, "/users", "1", (request, response) -> { });
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("10", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, send(filter, "/users", "2", (request, response) -> { }).getStatus());
+        assertEquals(200, send(filter, "/items", "1", (request, response) -> { }).getStatus());
+        assertEquals(1, meterRegistry.counter("gateway.admission.rejected", "route", "users", "status", "429")
+                .count());
+    }
+
+    @Test
+    void asyncRequestHoldsSlotUntilCompletionTest() throws Exception {
+        AdmissionFilter filter = filter();
+        MockHttpServletRequest async = request("/items", "1");
+        filter.doFilter(async, new MockHttpServletResponse(), (request, response) -> async.startAsync());
+
+        MockHttpServletResponse rejected = send(filter, "/items", "2", (request, response) -> { });
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+
+        ((MockAsyncContext) async.getAsyncContext()).complete();
+
+        assertEquals(200, send(filter, "/items", "2", (request, response) -> { }).getStatus());
+    }
+
+    @Test
+    void asyncErrorReleasesSlotOnceTest() throws Exception {
+        properties.setMaxConcurrentPerRoute(Map.of("items", 2));
+        AdmissionFilter filter = filter();
+        MockHttpServletRequest first = request("/items", "1");
+        MockHttpServletRequest second = request("/items", "2");
+        filter.doFilter(first, new MockHttpServletResponse(), (request, response) -> first.startAsync());
+        filter.doFilter(second, new MockHttpServletResponse(), (request, response) -> second.startAsync());
+
+        MockAsyncContext context = (MockAsyncContext) first.getAsyncContext();
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onError(new AsyncEvent(context));
+            listener.onTimeout(new AsyncEvent(context));
+        }
+
+        MockHttpServletRequest third = request("/items", "3");
+        filter.doFilter(third, new MockHttpServletResponse(), (request, response) -> third.startAsync());
+
+        assertEquals(503, send(filter, "/items", "4", (request, response) -> { }).getStatus());
+    }
+
+    @Test
+    void failedChainReleasesSlotTest() throws Exception {
+        AdmissionFilter filter = filter();
+
+        assertThrows(ServletException.class, () -> send(filter, "/items", "1", (request, response) -> {
+            throw new ServletException("boom");
+        }));
+
+        assertEquals(200, send(filter, "/items", "1", (request, response) -> { }).getStatus());
+    }
+
+    @Test
+    void actuatorAndDisabledFilterAreNotLimitedTest() throws Exception {
+        properties.setCapacity(1);
+        properties.setRefillPerSecond(0.1);
+        AdmissionFilter filter = filter();
+
+        assertEquals(200, send(filter, "/actuator/health", "1", (request, response) -> { }).getStatus());
+        assertEquals(200, send(filter, "/actuator/health", "1", (request, response) -> { }).getStatus());
+
+        properties.setEnabled(false);
+        assertEquals(200, send(filter, "/users", "1", (request, response) -> { }).getStatus());
+        assertEquals(200, send(filter, "/users", "1", (request, response) -> { }).getStatus());
+    }
+
+    private AdmissionFilter filter() {
+        return new AdmissionFilter(properties, new ObjectMapper(), meterRegistry);
+    }
+
+    private static MockHttpServletResponse send(AdmissionFilter filter, String uri, String userId, FilterChain chain)
+            throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(uri, userId), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String uri, String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader("X-Sharer-User-Id", userId);
+        request.setAsyncSupported(true);
+        return request;
+    }
+}
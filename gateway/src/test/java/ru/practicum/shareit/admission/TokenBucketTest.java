@@ -0,0 +1,59 @@
+package ru.practicum.shareit.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void startsFullAndReportsWaitWhenEmptyTest() {
+        TokenBucket bucket = new TokenBucket(3, 2, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+
+        assertWait(SECOND / 2, bucket.tryAcquire(0));
+    }
+
+    @Test
+    void refillsWithElapsedTimeTest() {
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+
+        assertWait(SECOND / 4, bucket.tryAcquire(SECOND / 4));
+        assertEquals(0, bucket.tryAcquire(SECOND / 2 + 10));
+        assertWait(SECOND / 2, bucket.tryAcquire(SECOND / 2 + 10));
+    }
+
+    @Test
+    void refillIsCappedByCapacityTest() {
+        TokenBucket bucket = new TokenBucket(2, 10, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+
+        long later = 60 * SECOND;
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertWait(SECOND / 10, bucket.tryAcquire(later));
+    }
+
+    @Test
+    void clockGoingBackDoesNotAddTokensTest() {
+        TokenBucket bucket = new TokenBucket(1, 1, SECOND);
+        assertEquals(0, bucket.tryAcquire(SECOND));
+
+        assertWait(SECOND, bucket.tryAcquire(0));
+        assertWait(SECOND / 2, bucket.tryAcquire(SECOND + SECOND / 2));
+    }
+
+    // Ожидание считается в double и округляется вверх, поэтому допускается расхождение в наносекунду
+    private static void assertWait(long expected, long actual) {
+        assertTrue(Math.abs(expected - actual) <= 1, "ожидалось " + expected + ", получено " + actual);
+    }
+}
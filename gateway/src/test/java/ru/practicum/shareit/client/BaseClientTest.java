@@ -0,0 +1,144 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaseClientTest {
+
+    private MeterRegistry meterRegistry;
+    private AtomicInteger upstreamGets;
+    private List<Sinks.One<ClientResponse>> pending;
+    private BaseClient client;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+        upstreamGets = new AtomicInteger();
+        pending = new ArrayList<>();
+
+        // GET висит, пока тест не отпустит ответ; изменения отвечают сразу
+        WebClient web = WebClient.builder()
+                .exchangeFunction(request -> {
+                    if (request.method() != HttpMethod.GET) {
+                        return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+                    }
+                    upstreamGets.incrementAndGet();
+                    Sinks.One<ClientResponse> response = Sinks.one();
+                    pending.add(response);
+                    return response.asMono();
+                })
+                .build();
+        RouteGuardProperties guardProperties = new RouteGuardProperties();
+        client = new BaseClient("items", web,
+                new ResponseCache(new ResponseCacheProperties(), meterRegistry),
+                new RouteGuard("items", guardProperties, meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.removeRegistry(meterRegistry);
+    }
+
+    @Test
+    void concurrentIdenticalGetsShareOneUpstreamCallTest() {
+        Mono<ResponseEntity<byte[]>> first = client.get("/1", 1L);
+        Mono<ResponseEntity<byte[]>> second = client.get("/1", 1L);
+        List<ResponseEntity<byte[]>> results = new ArrayList<>();
+        first.subscribe(results::add);
+        second.subscribe(results::add);
+
+        assertEquals(1, upstreamGets.get());
+        assertEquals(1, coalesced());
+
+        respond(0, "{\"id\":1}");
+
+        assertEquals(2, results.size());
+        assertEquals("{\"id\":1}", new String(results.get(0).getBody(), StandardCharsets.UTF_8));
+        assertSame(results.get(0), results.get(1));
+    }
+
+    @Test
+    void differentGetsAreNotCoalescedTest() {
+        client.get("/1", 1L).subscribe();
+        client.get("/1", 2L).subscribe();
+        client.get("/2", 1L).subscribe();
+
+        assertEquals(3, upstreamGets.get());
+        assertEquals(0, coalesced());
+    }
+
+    @Test
+    void getAfterFinishedFlightGoesUpstreamTest() {
+        client.get("/1", 1L).subscribe();
+        respond(0, "{\"id\":1}");
+
+        client.get("/1", 1L).subscribe();
+
+        assertEquals(2, upstreamGets.get());
+        assertEquals(0, coalesced());
+    }
+
+    @Test
+    void getAfterSuccessfulWriteDoesNotJoinEarlierFlightTest() {
+        List<ResponseEntity<byte[]>> results = new ArrayList<>();
+        client.get("/1", 1L).subscribe(results::add);
+
+        client.patch("/1", 1L, Map.of("name", "updated")).block();
+        client.get("/1", 1L).subscribe(results::add);
+
+        assertEquals(2, upstreamGets.get());
+        assertEquals(0, coalesced());
+
+        respond(0, "{\"name\":\"old\"}");
+        respond(1, "{\"name\":\"updated\"}");
+
+        assertEquals("{\"name\":\"updated\"}", new String(results.get(1).getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void streamPassesErrorStatusThroughTest() {
+        List<ResponseEntity<ResponseBodyEmitter>> results = new ArrayList<>();
+        client.stream("", null, MediaType.APPLICATION_NDJSON).subscribe(results::add);
+
+        pending.get(0).tryEmitValue(ClientResponse.create(HttpStatus.NOT_FOUND)
+                .header("Content-Type", "application/json")
+                .body("{}")
+                .build());
+
+        assertEquals(HttpStatus.NOT_FOUND, results.get(0).getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, results.get(0).getHeaders().getContentType());
+    }
+
+    private void respond(int index, String body) {
+        pending.get(index).tryEmitValue(ClientResponse.create(HttpStatus.OK)
+                .header("Content-Type", "application/json")
+                .body(body)
+                .build());
+    }
+
+    private double coalesced() {
+        return meterRegistry.counter("gateway.requests.coalesced", "route", "items").count();
+    }
+}
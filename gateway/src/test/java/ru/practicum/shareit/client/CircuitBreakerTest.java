@@ -0,0 +1,213 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long OPEN = TimeUnit.SECONDS.toNanos(10);
+
+    private CircuitBreaker breaker;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        RouteGuardProperties properties = new RouteGuardProperties();
+        properties.setWindowSize(4);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(50);
+        properties.setSlowCallDuration(Duration.ofMillis(100));
+        properties.setSlowCallRateThreshold(75);
+        properties.setOpenDuration(Duration.ofNanos(OPEN));
+        properties.setHalfOpenProbes(2);
+        breaker = new CircuitBreaker("items", properties);
+        now = 1_000_000_000L;
+    }
+
+    @Test
+    void opensOnFailureRateTest() {
+        call(FAST, false);
+        call(FAST, true);
+        call(FAST, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        call(FAST, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertRejected(breaker.tryAcquire(now));
+        assertEquals(11, breaker.retryAfterSeconds(now));
+    }
+
+    @Test
+    void staysClosedBelowMinimumCallsTest() {
+        call(FAST, true);
+        call(FAST, true);
+        call(FAST, true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertAdmitted(breaker.tryAcquire(now));
+    }
+
+    @Test
+    void oldCallsLeaveWindowTest() {
+        call(FAST, true);
+        call(FAST, false);
+        call(FAST, false);
+        call(FAST, false);
+        call(FAST, true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void opensOnSlowCallRateTest() {
+        call(SLOW, false);
+        call(FAST, false);
+        call(SLOW, false);
+        call(SLOW, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpenLimitsProbesTest() {
+        open();
+        now += OPEN;
+
+        long first = assertAdmitted(breaker.tryAcquire(now));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        long second = assertAdmitted(breaker.tryAcquire(now));
+        assertRejected(breaker.tryAcquire(now));
+
+        breaker.onResult(now, FAST, false, first);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onResult(now, FAST, false, second);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertAdmitted(breaker.tryAcquire(now));
+    }
+
+    @Test
+    void failedProbeReopensTest() {
+        open();
+        now += OPEN;
+        long probe = assertAdmitted(breaker.tryAcquire(now));
+
+        breaker.onResult(now, FAST, true, probe);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertRejected(breaker.tryAcquire(now + OPEN - 1));
+        assertAdmitted(breaker.tryAcquire(now + OPEN));
+    }
+
+    @Test
+    void slowProbeReopensTest() {
+        open();
+        now += OPEN;
+        long probe = assertAdmitted(breaker.tryAcquire(now));
+
+        breaker.onResult(now, SLOW, false, probe);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void cancelledProbeIsReturnedTest() {
+        open();
+        now += OPEN;
+        long probe = assertAdmitted(breaker.tryAcquire(now));
+        assertAdmitted(breaker.tryAcquire(now));
+        assertRejected(breaker.tryAcquire(now));
+
+        breaker.onCancel(probe);
+
+        assertAdmitted(breaker.tryAcquire(now));
+        assertRejected(breaker.tryAcquire(now));
+    }
+
+    @Test
+    void cancelWhileClosedIsIgnoredTest() {
+        breaker.onCancel(assertAdmitted(breaker.tryAcquire(now)));
+        call(FAST, true);
+        call(FAST, true);
+        call(FAST, false);
+        call(FAST, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void callAdmittedWhileClosedIsNotCountedAsProbeTest() {
+        long late = assertAdmitted(breaker.tryAcquire(now));
+        open();
+        now += OPEN;
+        long probe = assertAdmitted(breaker.tryAcquire(now));
+        assertAdmitted(breaker.tryAcquire(now));
+
+        breaker.onResult(now, FAST, false, late);
+        breaker.onResult(now, FAST, false, probe);
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void cancelOfCallAdmittedWhileClosedDoesNotReturnProbeTest() {
+        long late = assertAdmitted(breaker.tryAcquire(now));
+        open();
+        now += OPEN;
+        assertAdmitted(breaker.tryAcquire(now));
+        assertAdmitted(breaker.tryAcquire(now));
+
+        breaker.onCancel(late);
+
+        assertRejected(breaker.tryAcquire(now));
+    }
+
+    @Test
+    void probeFromEarlierHalfOpenIsIgnoredTest() {
+        open();
+        now += OPEN;
+        long stale = assertAdmitted(breaker.tryAcquire(now));
+        long failed = assertAdmitted(breaker.tryAcquire(now));
+        breaker.onResult(now, FAST, true, failed);
+        now += OPEN;
+        long first = assertAdmitted(breaker.tryAcquire(now));
+        long second = assertAdmitted(breaker.tryAcquire(now));
+
+        breaker.onResult(now, FAST, false, stale);
+        breaker.onResult(now, FAST, false, first);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onResult(now, FAST, false, second);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(FAST, true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void call(long duration, boolean failed) {
+        long epoch = assertAdmitted(breaker.tryAcquire(now));
+        now += duration;
+        breaker.onResult(now, duration, failed, epoch);
+    }
+
+    private static long assertAdmitted(long epoch) {
+        assertNotEquals(CircuitBreaker.REJECTED, epoch);
+        return epoch;
+    }
+
+    private static void assertRejected(long epoch) {
+        assertEquals(CircuitBreaker.REJECTED, epoch);
+    }
+}
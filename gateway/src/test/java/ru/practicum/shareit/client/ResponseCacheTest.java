@@ -0,0 +1,97 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    private ResponseCacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResponseCacheProperties();
+        properties.setTtl(Map.of("items", Duration.ofMinutes(1), "requests", Duration.ofMinutes(1)));
+        properties.setEvicts(Map.of("items", List.of("items", "requests")));
+    }
+
+    @Test
+    void putAndGetTest() {
+        ResponseCache cache = new ResponseCache(properties, new SimpleMeterRegistry());
+        ResponseEntity<byte[]> response = ok();
+
+        cache.put("items", "1 /1", cache.generation("items"), response);
+
+        assertSame(response, cache.get("items", "1 /1"));
+        assertNull(cache.get("items", "2 /1"));
+    }
+
+    @Test
+    void routeWithoutTtlAndErrorsAreNotCachedTest() {
+        ResponseCache cache = new ResponseCache(properties, new SimpleMeterRegistry());
+
+        cache.put("bookings", "1 /1", cache.generation("bookings"), ok());
+        cache.put("items", "1 /1", cache.generation("items"), ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+
+        assertNull(cache.get("bookings", "1 /1"));
+        assertNull(cache.get("items", "1 /1"));
+    }
+
+    @Test
+    void invalidateDropsEvictedRoutesTest() {
+        ResponseCache cache = new ResponseCache(properties, new SimpleMeterRegistry());
+        cache.put("items", "1 /1", cache.generation("items"), ok());
+        cache.put("requests", "1 /all", cache.generation("requests"), ok());
+
+        cache.invalidate("items");
+
+        assertNull(cache.get("items", "1 /1"));
+        assertNull(cache.get("requests", "1 /all"));
+    }
+
+    @Test
+    void responseStartedBeforeInvalidateIsNotCachedTest() {
+        ResponseCache cache = new ResponseCache(properties, new SimpleMeterRegistry());
+        long generation = cache.generation("items");
+
+        cache.invalidate("items");
+        cache.put("items", "1 /1", generation, ok());
+
+        assertNull(cache.get("items", "1 /1"));
+        assertNotEquals(generation, cache.generation("items"));
+    }
+
+    @Test
+    void invalidateBetweenCheckAndPutIsNotLostTest() {
+        ResponseCache cache = new ResponseCache(properties, new SimpleMeterRegistry()) {
+            private int calls;
+
+            // Сброс сразу после проверки поколения внутри put, до записи ответа в кэш
+            @Override
+            public long generation(String route) {
+                long generation = super.generation(route);
+                if (++calls == 2) {
+                    invalidate(route);
+                }
+                return generation;
+            }
+        };
+        long generation = cache.generation("items");
+
+        cache.put("items", "1 /1", generation, ok());
+
+        assertNull(cache.get("items", "1 /1"));
+    }
+
+    private static ResponseEntity<byte[]> ok() {
+        return ResponseEntity.ok(new byte[]{'{', '}'});
+    }
+}
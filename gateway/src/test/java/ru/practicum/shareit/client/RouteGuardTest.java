@@ -0,0 +1,143 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteGuardTest {
+
+    private RouteGuardProperties properties;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RouteGuardProperties();
+        properties.setMaxConcurrent(2);
+        properties.setWindowSize(2);
+        properties.setMinimumCalls(2);
+        properties.setOpenDuration(Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void bulkheadRejectsAboveLimitAndReleasesOnCancelTest() {
+        RouteGuard guard = new RouteGuard("items", properties, meterRegistry);
+        Disposable first = guard.protect(Mono.<ResponseEntity<String>>never()).subscribe();
+        Disposable second = guard.protect(Mono.<ResponseEntity<String>>never()).subscribe();
+
+        assertThrows(ServiceUnavailableException.class, () -> guard.protect(ok()).block());
+        assertEquals(1, rejected("bulkhead"));
+
+        first.dispose();
+
+        assertEquals(HttpStatus.OK, guard.protect(ok()).block().getStatusCode());
+        second.dispose();
+    }
+
+    @Test
+    void streamHoldsBulkheadUntilBodyEndsTest() {
+        properties.setMaxConcurrent(1);
+        RouteGuard guard = new RouteGuard("users", properties, meterRegistry);
+        Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+        ResponseEntity<Flux<DataBuffer>> response = guard.protectStream(
+                Mono.just(ResponseEntity.ok(body.asFlux()))).block();
+        List<DataBuffer> received = new ArrayList<>();
+        response.getBody().subscribe(received::add);
+
+        assertThrows(ServiceUnavailableException.class, () -> guard.protect(ok()).block());
+
+        body.tryEmitNext(DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{'['}));
+        body.tryEmitComplete();
+
+        assertEquals(1, received.size());
+        assertEquals(HttpStatus.OK, guard.protect(ok()).block().getStatusCode());
+    }
+
+    @Test
+    void cancelledStreamReleasesBulkheadAndBrokenBodyCountsAsFailureTest() {
+        properties.setMaxConcurrent(1);
+        RouteGuard guard = new RouteGuard("users", properties, meterRegistry);
+
+        guard.protectStream(Mono.just(ResponseEntity.ok(Flux.<DataBuffer>never()))).block()
+                .getBody().subscribe().dispose();
+        for (int i = 0; i < 2; i++) {
+            Flux<DataBuffer> broken = Flux.error(new IOException("reset"));
+            guard.protectStream(Mono.just(ResponseEntity.ok(broken))).block()
+                    .getBody().subscribe(buffer -> { }, error -> { });
+        }
+
+        assertThrows(ServiceUnavailableException.class, () -> guard.protect(ok()).block());
+        assertEquals(1, rejected("circuit"));
+    }
+
+    @Test
+    void serverErrorsOpenCircuitTest() {
+        RouteGuard guard = new RouteGuard("items", properties, meterRegistry);
+        guard.protect(Mono.just(ResponseEntity.status(HttpStatus.BAD_GATEWAY).<String>build())).block();
+        assertThrows(IOException.class, () -> block(guard.protect(Mono.error(new IOException("reset")))));
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> guard.protect(ok()).block());
+
+        assertEquals(60, exception.getRetryAfterSeconds());
+        assertEquals(1, rejected("circuit"));
+    }
+
+    @Test
+    void clientErrorsKeepCircuitClosedTest() {
+        RouteGuard guard = new RouteGuard("items", properties, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            guard.protect(Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).<String>build())).block();
+        }
+
+        assertEquals(HttpStatus.OK, guard.protect(ok()).block().getStatusCode());
+    }
+
+    @Test
+    void disabledGuardPassesCallsThroughTest() {
+        properties.setEnabled(false);
+        properties.setMaxConcurrent(0);
+        RouteGuard guard = new RouteGuard("items", properties, meterRegistry);
+
+        assertEquals(HttpStatus.OK, guard.protect(ok()).block().getStatusCode());
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.find("gateway.guard.rejected").tag("reason", reason).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private static Mono<ResponseEntity<String>> ok() {
+        return Mono.just(ResponseEntity.ok("ok"));
+    }
+
+    private static void block(Mono<ResponseEntity<String>> call) throws IOException {
+        try {
+            call.block();
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
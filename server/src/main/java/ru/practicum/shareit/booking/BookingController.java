@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.FullBookingDto;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 @Slf4j
@@ -48,8 +49,12 @@ public class BookingController {
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") int from,
-            @RequestParam(defaultValue = "10") int size) {
-        List<FullBookingDto> bookings = bookingService.bookingsByBooker(userId, state, from, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response) {
+        List<FullBookingDto> bookings = cursor == null
+                ? bookingService.bookingsByBooker(userId, state, from, size)
+                : bookingService.bookingsByBookerAfter(userId, state, cursor, size).writeTo(response);
         log.info("Получен список всех бронирований текущего пользователя");
         return bookings;
     }
@@ -59,8 +64,12 @@ public class BookingController {
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @RequestParam(defaultValue = "ALL", required = false) String state,
             @RequestParam(defaultValue = "0") int from,
-            @RequestParam(defaultValue = "10") int size) {
-        List<FullBookingDto> bookings = bookingService.bookingsByOwner(userId, state, from, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response) {
+        List<FullBookingDto> bookings = cursor == null
+                ? bookingService.bookingsByOwner(userId, state, from, size)
+                : bookingService.bookingsByOwnerAfter(userId, state, cursor, size).writeTo(response);
         log.info("Получен список всех забронированных вещей текущего пользователя");
         return bookings;
     }
@@ -7,6 +7,10 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 @Component
 public class BookingMapper {
 
@@ -48,4 +52,15 @@ public class BookingMapper {
                 .build();
     }
 
+    public static List<FullBookingDto> toFullBookingDtoList(Iterable<Booking> bookings,
+                                                            Map<Long, UserDto> bookers,
+                                                            Map<Long, ItemDto> items) {
+        List<FullBookingDto> result = new ArrayList<>();
+        for (Booking booking : bookings) {
+            result.add(toFullBookingDto(booking,
+                    bookers.get(booking.getBookerId()),
+                    items.get(booking.getItemId())));
+        }
+        return result;
+    }
 }
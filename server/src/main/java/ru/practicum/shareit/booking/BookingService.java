@@ -1,11 +1,17 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.BookingCalendar;
 import ru.practicum.shareit.booking.dao.BookingDao;
+import ru.practicum.shareit.booking.dao.BookingSpecifications;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.FreeSlotDto;
 import ru.practicum.shareit.booking.dto.FullBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.exception.ValidationException;
@@ -15,39 +21,53 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.utility.FromSizeRequest;
+import ru.practicum.shareit.utility.KeysetCursor;
+import ru.practicum.shareit.utility.KeysetPage;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingService {
 
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "start", "id");
+    private static final int AVAILABILITY_DAYS = 30;
+
     private final BookingDao dao;
     private final UserService userService;
     private final ItemService itemService;
+    private final BookingCalendar calendar;
 
     @Transactional
     public FullBookingDto create(Long userId, BookingDto bookingDto) {
-        createValidation(userId, bookingDto);
+        UserDto userDto = userService.getUser(userId);
+        ItemDto itemDto = createValidation(userId, bookingDto);
         Booking booking = BookingMapper.toBooking(bookingDto);
         booking.setBookerId(userId);
+        booking.setOwnerId(itemDto.getOwner());
         booking.setStatus(BookingStatus.WAITING);
+        calendar.lock(booking.getItemId());
+        calendar.reserve(booking.getItemId(), booking.getStart(), booking.getEnd());
         dao.save(booking);
-        UserDto userDto = userService.getUser(userId);
-        ItemDto itemDto = itemService.getSimpleItem(booking.getItemId());
         return BookingMapper.toFullBookingDto(booking, userDto, itemDto);
     }
 
     @Transactional
     public FullBookingDto updateStatus(Long userId, Long bookingId, Boolean approved) {
 
+        // Бронь читается уже под блокировкой вещи, иначе проверка статуса увидит состояние до чужого коммита
+        Long itemId = dao.findItemIdById(bookingId).orElseThrow(() -> new WrongParameterException("Booking не найден"));
+        calendar.lock(itemId);
+
         Booking booking = dao.findById(bookingId).orElseThrow(() -> new WrongParameterException("Booking не найден"));
 
-        if (!Objects.equals(userId, itemService.getSimpleItem(booking.getItemId()).getOwner())) {
+        if (!Objects.equals(userId, booking.getOwnerId())) {
             throw new WrongParameterException("Изменять бронь может только владелец предмета");
         }
 
@@ -55,7 +75,15 @@ public class BookingService {
             throw new ValidationException("Статус уже APPROVED");
         }
 
-        booking.setStatus(Boolean.TRUE.equals(approved) ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        boolean approve = Boolean.TRUE.equals(approved);
+        if (approve && booking.getStatus() != BookingStatus.WAITING) {
+            // Отклоненной брони нет в расписании вещи: ее время могли занять, пока она была отклонена
+            calendar.reserve(booking.getItemId(), booking.getStart(), booking.getEnd());
+        }
+        booking.setStatus(approve ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        if (booking.getStatus() == BookingStatus.REJECTED) {
+            calendar.release(booking.getItemId());
+        }
 
         dao.save(booking);
 
@@ -64,14 +92,14 @@ public class BookingService {
 
     public FullBookingDto getBooking(Long userId, Long bookingId) {
 
-        if (userService.getUser(userId) == null) {
+        if (!userService.existsById(userId)) {
             throw new WrongParameterException("User не найден");
         }
 
         Booking booking = dao.findById(bookingId).orElseThrow(() -> new WrongParameterException("Booking не найден"));
 
         if (!Objects.equals(booking.getBookerId(), userId)
-                && !Objects.equals(itemService.getSimpleItem(booking.getItemId()).getOwner(), userId)) {
+                && !Objects.equals(booking.getOwnerId(), userId)) {
             throw new WrongParameterException("Получить информацию может только владелец или арендатор предмета");
         }
 
@@ -80,95 +108,98 @@ public class BookingService {
                 itemService.getSimpleItem(booking.getItemId()));
     }
 
-    public List<FullBookingDto> bookingsByBooker(Long userId, String state, int from, int size) {
+    public List<FreeSlotDto> getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
 
-        if (userService.getUser(userId) == null) {
+        if (!userService.existsById(userId)) {
             throw new WrongParameterException("User не существует");
         }
 
-        Pageable pageable = FromSizeRequest.of(from, size);
-
-        List<Booking> bookings;
-
-        switch (state) {
-            case "ALL":
-                bookings = dao.findBookingsByBookerIdOrderByStartDesc(userId, pageable);
-                break;
-            case "CURRENT":
-                bookings = dao.findCurrentBookingsByBooker(userId, pageable);
-                break;
-            case "FUTURE":
-                bookings = dao.findFutureBookingsByBooker(userId, pageable);
-                break;
-            case "WAITING":
-                bookings = dao.findWaitingBookingsByBooker(userId, pageable);
-                break;
-            case "REJECTED":
-                bookings = dao.findRejectedBookingsByBooker(userId, pageable);
-                break;
-            case "PAST":
-                bookings = dao.findPastBookingsByBooker(userId, pageable);
-                break;
-            default:
-                throw new ValidationException("Unknown state: " + state);
-        }
-
-        List<FullBookingDto> dtoList = new ArrayList<>();
-        for (Booking booking : bookings) {
-            dtoList.add(BookingMapper.toFullBookingDto(booking,
-                    userService.getUser(booking.getBookerId()),
-                    itemService.getSimpleItem(booking.getItemId())));
+        itemService.getSimpleItem(itemId);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime end = to == null ? start.plusDays(AVAILABILITY_DAYS) : to;
+        if (!end.isAfter(start)) {
+            throw new ValidationException("Конец периода раньше начала");
         }
-        return dtoList;
+        return calendar.freeSlots(itemId, start, end);
     }
 
-    public List<FullBookingDto> bookingsByOwner(Long userId, String state, int from, int size) {
+    public List<FullBookingDto> bookingsByBooker(Long userId, String state, int from, int size) {
 
-        if (userService.getUser(userId) == null) {
+        if (!userService.existsById(userId)) {
             throw new WrongParameterException("User не существует");
         }
 
-        Pageable pageable = FromSizeRequest.of(from, size);
-
-        List<Booking> bookings;
-        List<FullBookingDto> dtoList = new ArrayList<>();
-
-        switch (state) {
-            case "ALL":
-                bookings = dao.findBookingsByOwner(userId, pageable);
-                break;
-            case "CURRENT":
-                bookings = dao.findCurrentBookingsByOwner(userId, pageable);
-                break;
-            case "FUTURE":
-                bookings = dao.findFutureBookingsByOwner(userId, pageable);
-                break;
-            case "WAITING":
-                bookings = dao.findWaitingBookingsByOwner(userId, pageable);
-                break;
-            case "REJECTED":
-                bookings = dao.findRejectedBookingsByOwner(userId, pageable);
-                break;
-            case "PAST":
-                bookings = dao.findPastBookingsByOwner(userId, pageable);
-                break;
-            default:
-                throw new ValidationException("Unknown state: " + state);
+        List<Booking> bookings = findBookings(BookingSpecifications.byBooker(userId), state, null,
+                new FromSizeRequest(from, size, NEWEST_FIRST));
+        return toFullBookingDtoList(bookings);
+    }
+
+    public List<FullBookingDto> bookingsByOwner(Long userId, String state, int from, int size) {
+
+        if (!userService.existsById(userId)) {
+            throw new WrongParameterException("User не существует");
         }
 
-        for (Booking booking : bookings) {
-            dtoList.add(BookingMapper.toFullBookingDto(booking,
-                    userService.getUser(booking.getBookerId()),
-                    itemService.getSimpleItem(booking.getItemId())));
+        List<Booking> bookings = findBookings(BookingSpecifications.byOwner(userId), state, null,
+                new FromSizeRequest(from, size, NEWEST_FIRST));
+        return toFullBookingDtoList(bookings);
+    }
+
+    public KeysetPage<FullBookingDto> bookingsByBookerAfter(Long userId, String state, String cursor, int size) {
+
+        if (!userService.existsById(userId)) {
+            throw new WrongParameterException("User не существует");
         }
 
-        return dtoList;
+        return keysetPage(BookingSpecifications.byBooker(userId), state, cursor, size);
     }
 
-    private void createValidation(Long userId, BookingDto bookingDto) {
-        if (userService.getUser(userId) == null) {
+    public KeysetPage<FullBookingDto> bookingsByOwnerAfter(Long userId, String state, String cursor, int size) {
+
+        if (!userService.existsById(userId)) {
             throw new WrongParameterException("User не существует");
         }
+
+        return keysetPage(BookingSpecifications.byOwner(userId), state, cursor, size);
+    }
+
+    private KeysetPage<FullBookingDto> keysetPage(Specification<Booking> role, String state, String cursor, int size) {
+        List<Booking> bookings = findBookings(role, state, KeysetCursor.decode(cursor),
+                PageRequest.of(0, size, NEWEST_FIRST));
+
+        String nextCursor = null;
+        if (bookings.size() == size) {
+            Booking last = bookings.get(bookings.size() - 1);
+            nextCursor = KeysetCursor.of(last.getStart(), last.getId()).encode();
+        }
+        return new KeysetPage<>(toFullBookingDtoList(bookings), nextCursor);
+    }
+
+    private List<Booking> findBookings(Specification<Booking> role, String state, KeysetCursor after,
+                                       Pageable pageable) {
+        Specification<Booking> spec = Specification.where(role)
+                .and(BookingSpecifications.inState(state, LocalDateTime.now()))
+                .and(BookingSpecifications.startsBefore(after));
+        return dao.findList(spec, pageable);
+    }
+
+    private List<FullBookingDto> toFullBookingDtoList(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Long> bookerIds = new HashSet<>();
+        Set<Long> itemIds = new HashSet<>();
+        for (Booking booking : bookings) {
+            bookerIds.add(booking.getBookerId());
+            itemIds.add(booking.getItemId());
+        }
+        return BookingMapper.toFullBookingDtoList(bookings,
+                userService.getUsers(bookerIds),
+                itemService.getSimpleItems(itemIds));
+    }
+
+    private ItemDto createValidation(Long userId, BookingDto bookingDto) {
         if (bookingDto.getItemId() == null) {
             throw new WrongParameterException("Item не существует");
         }
@@ -181,11 +212,13 @@ public class BookingService {
         if (bookingDto.getStart().isBefore(LocalDateTime.now())) {
             throw new ValidationException("Начало не может быть в прошлом");
         }
-        if (!itemService.getSimpleItem(bookingDto.getItemId()).getAvailable()) {
+        ItemDto item = itemService.getSimpleItem(bookingDto.getItemId());
+        if (!item.getAvailable()) {
             throw new ValidationException("Item занят");
         }
-        if (userId.equals(itemService.getSimpleItem(bookingDto.getItemId()).getOwner())) {
+        if (userId.equals(item.getOwner())) {
             throw new WrongParameterException("Нельзя делать бронирование у самого себя");
         }
+        return item;
     }
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dao.BookingDao;
+import ru.practicum.shareit.booking.dto.FreeSlotDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Занятость вещей в памяти процесса: для каждой вещи отсортированные непересекающиеся интервалы [start, end)
+ * подтвержденных и ожидающих бронирований. Проверка пересечения и поиск свободных окон - O(log n).
+ * Расписание вещи загружается из базы при первом обращении и сбрасывается, когда бронь освобождает время.
+ * Изменения броней одной вещи сериализуются полосатой блокировкой, разные вещи не мешают друг другу.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingCalendar {
+
+    static final List<BookingStatus> BLOCKING = List.of(BookingStatus.APPROVED, BookingStatus.WAITING);
+    private static final int LOCK_STRIPES = 64;
+    // Блокировка вещи снимается последней, когда расписание уже сброшено: иначе следующий писатель
+    // или чтение доступности перечитает расписание без еще не откаченной брони
+    private static final int INVALIDATE_ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+    private static final int UNLOCK_ORDER = Ordered.LOWEST_PRECEDENCE;
+
+    private final BookingDao dao;
+    private final Map<Long, Schedule> schedules = new ConcurrentHashMap<>();
+    private final Lock[] stripes = newStripes();
+
+    /**
+     * Захватывает блокировку вещи до завершения текущей транзакции, чтобы следующий запрос по той же вещи
+     * увидел уже закоммиченное состояние.
+     */
+    public void lock(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Блокировка вещи требует активной транзакции");
+        }
+        Lock lock = stripes[(Long.hashCode(itemId) * 0x9E3779B9 >>> 16) & (LOCK_STRIPES - 1)];
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return UNLOCK_ORDER;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Занимает интервал за вещью или бросает ConflictException, если он пересекается с существующей бронью.
+     * При откате транзакции расписание вещи сбрасывается и перечитывается из базы.
+     */
+    public void reserve(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Schedule schedule = schedule(itemId);
+        synchronized (schedule) {
+            if (!schedule.isFree(start, end)) {
+                throw new ConflictException("Вещь уже забронирована на эти даты");
+            }
+            schedule.add(start, end);
+        }
+        afterCompletion(itemId, true);
+    }
+
+    /**
+     * Сбрасывает расписание вещи после завершения транзакции, например когда бронь отклонена.
+     */
+    public void release(Long itemId) {
+        afterCompletion(itemId, false);
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Schedule schedule = schedule(itemId);
+        synchronized (schedule) {
+            return schedule.isFree(start, end);
+        }
+    }
+
+    public List<FreeSlotDto> freeSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        Schedule schedule = schedule(itemId);
+        synchronized (schedule) {
+            return schedule.freeSlots(from, to);
+        }
+    }
+
+    public void invalidate(Long itemId) {
+        schedules.remove(itemId);
+    }
+
+    private Schedule schedule(Long itemId) {
+        Schedule schedule = schedules.get(itemId);
+        if (schedule != null) {
+            return schedule;
+        }
+        Schedule loaded = new Schedule();
+        for (Booking booking : dao.findAllByItemIdAndStatusInAndEndAfter(itemId, BLOCKING, LocalDateTime.now())) {
+            loaded.add(booking.getStart(), booking.getEnd());
+        }
+        schedule = schedules.putIfAbsent(itemId, loaded);
+        return schedule == null ? loaded : schedule;
+    }
+
+    private void afterCompletion(Long itemId, boolean onlyOnRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (!onlyOnRollback) {
+                invalidate(itemId);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return INVALIDATE_ORDER;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!onlyOnRollback || status != STATUS_COMMITTED) {
+                    invalidate(itemId);
+                }
+            }
+        });
+    }
+
+    private static Lock[] newStripes() {
+        Lock[] locks = new Lock[LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    static class Schedule {
+        private final NavigableMap<LocalDateTime, LocalDateTime> busy = new TreeMap<>();
+
+        boolean isFree(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> before = busy.lowerEntry(end);
+            return before == null || !before.getValue().isAfter(start);
+        }
+
+        void add(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> before = busy.floorEntry(start);
+            if (before != null && !before.getValue().isBefore(start)) {
+                start = before.getKey();
+                end = later(end, before.getValue());
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> next;
+            while ((next = busy.ceilingEntry(start)) != null && !next.getKey().isAfter(end)) {
+                end = later(end, next.getValue());
+                busy.remove(next.getKey());
+            }
+            busy.put(start, end);
+        }
+
+        List<FreeSlotDto> freeSlots(LocalDateTime from, LocalDateTime to) {
+            List<FreeSlotDto> slots = new ArrayList<>();
+            LocalDateTime cursor = from;
+            LocalDateTime first = busy.floorKey(from);
+            for (Map.Entry<LocalDateTime, LocalDateTime> interval
+                    : busy.subMap(first == null ? from : first, true, to, false).entrySet()) {
+                if (interval.getKey().isAfter(cursor)) {
+                    slots.add(new FreeSlotDto(cursor, interval.getKey()));
+                }
+                cursor = later(cursor, interval.getValue());
+            }
+            if (cursor.isBefore(to)) {
+                slots.add(new FreeSlotDto(cursor, to));
+            }
+            return slots;
+        }
+
+        private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+            return a.isAfter(b) ? a : b;
+        }
+    }
+}
@@ -1,64 +1,38 @@
 package ru.practicum.shareit.booking.dao;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingDao extends JpaRepository<Booking, Long> {
+public interface BookingDao extends JpaRepository<Booking, Long>, BookingDaoCustom {
 
-    List<Booking> findBookingsByBookerIdOrderByStartDesc(Long bookerId, Pageable pageable);
+    Optional<Booking> findFirstByItemIdAndStartBeforeOrderByStartDesc(Long itemId, LocalDateTime now);
 
-    @Query("SELECT b FROM Booking b WHERE b.bookerId = ?1 " +
-            "AND b.start < current_timestamp AND b.end > current_timestamp ORDER BY b.start desc")
-    List<Booking> findCurrentBookingsByBooker(Long bookerId, Pageable pageable);
+    Optional<Booking> findFirstByItemIdAndStartAfterOrderByStartAsc(Long itemId, LocalDateTime now);
 
-    @Query("SELECT b FROM Booking b WHERE b.bookerId = ?1 " +
-            "AND b.start > current_timestamp ORDER BY b.start desc")
-    List<Booking> findFutureBookingsByBooker(Long bookerId, Pageable pageable);
+    @Query(value = "SELECT * FROM (SELECT b.*, ROW_NUMBER() OVER " +
+            "(PARTITION BY b.item_id ORDER BY b.start_date DESC) AS rn " +
+            "FROM bookings b WHERE b.item_id IN (?1) AND b.start_date < ?2) ranked " +
+            "WHERE ranked.rn = 1", nativeQuery = true)
+    List<Booking> findLastBookingsByItemIds(Collection<Long> itemIds, LocalDateTime now);
 
-    @Query("SELECT b FROM Booking b WHERE b.bookerId = ?1 AND b.status = 'WAITING'")
-    List<Booking> findWaitingBookingsByBooker(Long bookerId, Pageable pageable);
+    @Query(value = "SELECT * FROM (SELECT b.*, ROW_NUMBER() OVER " +
+            "(PARTITION BY b.item_id ORDER BY b.start_date ASC) AS rn " +
+            "FROM bookings b WHERE b.item_id IN (?1) AND b.start_date > ?2) ranked " +
+            "WHERE ranked.rn = 1", nativeQuery = true)
+    List<Booking> findNextBookingsByItemIds(Collection<Long> itemIds, LocalDateTime now);
 
-    @Query("SELECT b FROM Booking b WHERE b.bookerId = ?1 AND b.status = 'REJECTED'")
-    List<Booking> findRejectedBookingsByBooker(Long bookerId, Pageable pageable);
+    @Query("SELECT b.itemId FROM Booking b WHERE b.id = ?1")
+    Optional<Long> findItemIdById(Long id);
 
-    @Query("SELECT b FROM Booking b LEFT JOIN Item i ON b.itemId = i.id WHERE i.owner = ?1 ORDER BY b.start desc")
-    List<Booking> findBookingsByOwner(Long ownerId, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b JOIN Item i ON b.itemId = i.id WHERE i.owner = ?1 " +
-            "AND b.start < current_timestamp AND b.end > current_timestamp ORDER BY b.start desc")
-    List<Booking> findCurrentBookingsByOwner(Long ownerId, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b JOIN Item i ON b.itemId = i.id WHERE i.owner = ?1 " +
-            "AND b.start > current_timestamp ORDER BY b.start desc")
-    List<Booking> findFutureBookingsByOwner(Long ownerId, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b JOIN Item i ON b.itemId = i.id WHERE i.owner = ?1 " +
-            "AND b.status = 'WAITING' ORDER BY b.start desc")
-    List<Booking> findWaitingBookingsByOwner(Long ownerId, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b JOIN Item i ON b.itemId = i.id WHERE i.owner = ?1 " +
-            "AND b.status = 'REJECTED' ORDER BY b.start desc")
-    List<Booking> findRejectedBookingsByOwner(Long ownerId, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b WHERE b.bookerId = ?1 AND b.end < current_timestamp ORDER BY b.start DESC")
-    List<Booking> findPastBookingsByBooker(Long bookerId, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b JOIN Item i ON b.itemId = i.id WHERE i.owner = ?1 " +
-            "AND b.end < current_timestamp ORDER BY b.start DESC")
-    List<Booking> findPastBookingsByOwner(Long ownerId, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b JOIN Item i ON b.itemId = i.id " +
-            "WHERE i.owner = ?1 AND i.id = ?2 ORDER BY b.start ASC")
-    List<Booking> findLastBookingByItemId(Long userId, Long itemId);
-
-    @Query("SELECT b FROM Booking b JOIN Item i ON b.itemId = i.id " +
-            "WHERE i.owner = ?1 AND i.id = ?2 ORDER BY b.start DESC")
-    List<Booking> findNextBookingsByItemIdAndUserId(Long userId, Long itemId);
+    List<Booking> findAllByItemIdAndStatusInAndEndAfter(Long itemId, Collection<BookingStatus> statuses,
+                                                        LocalDateTime now);
 
     @Query("SELECT b FROM Booking b JOIN Item i ON b.itemId = i.id " +
             "WHERE b.bookerId = ?1 AND i.id = ?2 AND b.end < current_timestamp AND b.status = ?3")
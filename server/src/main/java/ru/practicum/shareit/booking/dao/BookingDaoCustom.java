@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dao;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+
+public interface BookingDaoCustom {
+
+    List<Booking> findList(Specification<Booking> spec, Pageable pageable);
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking.dao;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.utility.KeysetCursor;
+
+import java.time.LocalDateTime;
+
+public class BookingSpecifications {
+
+    private BookingSpecifications() {
+    }
+
+    public static Specification<Booking> byBooker(Long bookerId) {
+        return (root, query, cb) -> cb.equal(root.get("bookerId"), bookerId);
+    }
+
+    public static Specification<Booking> byOwner(Long ownerId) {
+        return (root, query, cb) -> cb.equal(root.get("ownerId"), ownerId);
+    }
+
+    public static Specification<Booking> inState(String state, LocalDateTime now) {
+        switch (state) {
+            case "ALL":
+                return null;
+            case "CURRENT":
+                return (root, query, cb) -> cb.and(
+                        cb.lessThan(root.get("start"), now),
+                        cb.greaterThan(root.get("end"), now));
+            case "FUTURE":
+                return (root, query, cb) -> cb.greaterThan(root.get("start"), now);
+            case "PAST":
+                return (root, query, cb) -> cb.lessThan(root.get("end"), now);
+            case "WAITING":
+                return (root, query, cb) -> cb.equal(root.get("status"), BookingStatus.WAITING);
+            case "REJECTED":
+                return (root, query, cb) -> cb.equal(root.get("status"), BookingStatus.REJECTED);
+            default:
+                throw new ValidationException("Unknown state: " + state);
+        }
+    }
+
+    public static Specification<Booking> startsBefore(KeysetCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        if (cursor.getTimestamp() == null) {
+            throw new ValidationException("Некорректный cursor");
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("start"), cursor.getTimestamp()),
+                cb.and(cb.equal(root.get("start"), cursor.getTimestamp()),
+                        cb.lessThan(root.get("id"), cursor.getId())));
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder(toBuilder = true)
+public class FreeSlotDto {
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 @Builder(toBuilder = true)
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
     @Column(name = "start_date")
     private LocalDateTime start;
@@ -28,4 +29,8 @@ public class Booking {
     private Long itemId;
     @Column(name = "booker_id")
     private Long bookerId;
+    @Column(name = "owner_id")
+    private Long ownerId;
+    @Version
+    private Long version;
 }
\ No newline at end of file
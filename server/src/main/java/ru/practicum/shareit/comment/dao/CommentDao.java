@@ -1,10 +1,21 @@
 package ru.practicum.shareit.comment.dao;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.comment.model.Comment;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 public interface CommentDao extends JpaRepository<Comment, Long> {
+    // Результат кэшируется до любой записи в comments; сами отзывы берутся из кэша второго уровня
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Comment> findAllByItemId(Long itemId);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author JOIN FETCH c.item WHERE c.item.id IN ?1")
+    List<Comment> findAllByItemIdIn(Collection<Long> itemIds);
 }
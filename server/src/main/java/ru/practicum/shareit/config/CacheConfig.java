@@ -0,0 +1,60 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.cache.interceptor.SimpleCacheResolver;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Кэш DTO пользователей и вещей по id. Запись и сброс откладываются до коммита транзакции,
+ * чтобы параллельное чтение не вернуло в кэш значение, которое еще не закоммичено или уже откатилось.
+ * Размер, TTL и сбор статистики задаются спецификацией Caffeine, метрики доступны через actuator.
+ * Поверх общего кэша каждое прочитанное значение запоминается до конца HTTP-запроса.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig implements CachingConfigurer {
+
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+    public static final String USER_IDS = "userIds";
+
+    @Value("${shareit.cache.spec}")
+    private String spec;
+
+    @Bean
+    @Override
+    public CacheManager cacheManager() {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager(USERS, ITEMS, USER_IDS);
+        caffeine.setCacheSpecification(spec);
+        caffeine.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+
+    @Bean
+    @Override
+    public CacheResolver cacheResolver() {
+        return new SimpleCacheResolver(cacheManager()) {
+            @Override
+            public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+                List<Cache> caches = new ArrayList<>();
+                for (Cache cache : super.resolveCaches(context)) {
+                    caches.add(new RequestMemoCache(cache));
+                }
+                return caches;
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Кэш второго уровня Hibernate для пользователей, вещей и отзывов и кэш запроса отзывов вещи.
+ * Регионы - кэши Caffeine в куче процесса за JCache, ограниченные по размеру и времени жизни:
+ * TTL страхует от строк, удаленных каскадом в базе в обход Hibernate.
+ * По умолчанию выключен; включается свойствами spring.jpa.properties.hibernate.cache.use_second_level_cache
+ * и use_query_cache.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class EntityCacheConfig {
+
+    public static final String USERS = "entity.users";
+    public static final String ITEMS = "entity.items";
+    public static final String COMMENTS = "entity.comments";
+
+    @Value("${shareit.entity-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${shareit.entity-cache.query-maximum-size:10000}")
+    private long queryMaximumSize;
+
+    @Value("${shareit.entity-cache.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager() {
+        // Свой URI на каждый контекст: менеджер по умолчанию общий для всех контекстов в одном загрузчике классов
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("shareit:entity-cache:" + UUID.randomUUID()),
+                provider.getDefaultClassLoader());
+        for (String region : new String[]{USERS, ITEMS, COMMENTS}) {
+            cacheManager.createCache(region, bounded(maximumSize));
+        }
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                bounded(queryMaximumSize));
+        // Отметки времени изменения таблиц нельзя вытеснять: без них кэш запросов вернет устаревший результат
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                configuration());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    private CaffeineConfiguration<Object, Object> bounded(long size) {
+        CaffeineConfiguration<Object, Object> configuration = configuration();
+        configuration.setMaximumSize(OptionalLong.of(size));
+        configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+        return configuration;
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Кэш, который запоминает прочитанные значения на время одного HTTP-запроса поверх общего кэша.
+ * Повторные обращения в рамках запроса не идут ни в общий кэш, ни в базу и видят одну и ту же версию,
+ * даже если общий кэш был сброшен параллельным запросом. Вне HTTP-запроса работает как обычный делегат.
+ */
+class RequestMemoCache implements Cache {
+
+    private static final String ATTRIBUTE_PREFIX = RequestMemoCache.class.getName() + ".";
+
+    private final Cache delegate;
+
+    RequestMemoCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Map<Object, Object> memo = memo();
+        if (memo == null) {
+            return delegate.get(key);
+        }
+        Object value = memo.get(key);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            memo.put(key, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Значение в кэше " + getName() + " не является " + type.getName());
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = delegate.get(key, valueLoader);
+        remember(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        remember(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        Map<Object, Object> memo = memo();
+        if (memo != null) {
+            memo.remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        Map<Object, Object> memo = memo();
+        if (memo != null) {
+            memo.clear();
+        }
+    }
+
+    private void remember(Object key, Object value) {
+        Map<Object, Object> memo = memo();
+        if (memo != null && value != null) {
+            memo.put(key, value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> memo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        String name = ATTRIBUTE_PREFIX + getName();
+        Map<Object, Object> memo = (Map<Object, Object>) attributes.getAttribute(name, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new HashMap<>();
+            attributes.setAttribute(name, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return memo;
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -36,4 +37,11 @@ public class ExceptionHandler {
         log.warn("409 {}", e.getMessage(), e);
         return new ExceptionResponse(e.getMessage(), "Внутренний конфликт");
     }
+
+    @org.springframework.web.bind.annotation.ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ExceptionResponse handleOptimisticLockingFailure(final ObjectOptimisticLockingFailureException e) {
+        log.warn("409 {}", e.getMessage(), e);
+        return new ExceptionResponse("Бронь была изменена параллельным запросом", "Внутренний конфликт");
+    }
 }
\ No newline at end of file
@@ -2,13 +2,19 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.FreeSlotDto;
 import ru.practicum.shareit.comment.CommentService;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
+import ru.practicum.shareit.utility.BatchResult;
 
+import javax.servlet.http.HttpServletResponse;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -21,6 +27,8 @@ public class ItemController {
 
     private final CommentService commentService;
 
+    private final BookingService bookingService;
+
     @PostMapping
     public ItemDto create(@RequestHeader("X-Sharer-User-Id") Long userId,
                           @RequestBody ItemDto itemDto) {
@@ -29,6 +37,14 @@ public class ItemController {
         return item;
     }
 
+    @PostMapping("/batch")
+    public List<BatchResult<ItemDto>> createAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                @RequestBody List<ItemDto> itemDtos) {
+        List<BatchResult<ItemDto>> results = itemService.createAll(userId, itemDtos);
+        log.info("Пакет из {} вещей пользователя с id {} обработан", itemDtos.size(), userId);
+        return results;
+    }
+
     @PatchMapping(value = "/{itemId}")
     ItemDto update(@RequestHeader("X-Sharer-User-Id") Long userId,
                    @PathVariable Long itemId,
@@ -46,11 +62,27 @@ public class ItemController {
         return item;
     }
 
+    @GetMapping(value = "/{itemId}/availability")
+    List<FreeSlotDto> getAvailability(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                      @PathVariable Long itemId,
+                                      @RequestParam(required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                      @RequestParam(required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        List<FreeSlotDto> slots = bookingService.getAvailability(userId, itemId, from, to);
+        log.info("Получены свободные окна вещи с id {}", itemId);
+        return slots;
+    }
+
     @GetMapping
     List<ItemInfoDto> getUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
                                    @RequestParam(defaultValue = "0") int from,
-                                   @RequestParam(defaultValue = "10") int size) {
-        List<ItemInfoDto> items = itemService.getUserItems(userId, from, size);
+                                   @RequestParam(defaultValue = "10") int size,
+                                   @RequestParam(required = false) String cursor,
+                                   HttpServletResponse response) {
+        List<ItemInfoDto> items = cursor == null
+                ? itemService.getUserItems(userId, from, size)
+                : itemService.getUserItemsAfter(userId, cursor, size).writeTo(response);
         log.info("Были получены все объявления пользователя с id {}", userId);
         return items;
     }
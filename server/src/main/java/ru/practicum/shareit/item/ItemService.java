@@ -1,6 +1,10 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -12,18 +16,30 @@ import ru.practicum.shareit.comment.CommentMapper;
 import ru.practicum.shareit.comment.dao.CommentDao;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.exception.WrongParameterException;
 import ru.practicum.shareit.item.dao.ItemDao;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.dao.ItemRequestDao;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.utility.BatchResult;
 import ru.practicum.shareit.utility.FromSizeRequest;
+import ru.practicum.shareit.utility.KeysetCursor;
+import ru.practicum.shareit.utility.KeysetPage;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,10 +47,18 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class ItemService {
 
+    private static final int NAME_LENGTH = 255;
+    private static final int DESCRIPTION_LENGTH = 1500;
+
     private final ItemDao itemDao;
     private final BookingDao bookingDao;
     private final CommentDao commentDao;
     private final UserService userService;
+    private final ItemSearchEngine searchEngine;
+    private final ItemRequestDao requestDao;
+
+    @Value("${shareit.batch.max-size:1000}")
+    private int batchMaxSize = 1000;
 
 
     @Transactional
@@ -43,10 +67,59 @@ public class ItemService {
         Item item = ItemMapper.toItem(itemDto);
         item.setOwner(userId);
         itemDao.save(item);
+        searchEngine.index(item);
         return ItemMapper.toItemDto(item);
     }
 
+    /**
+     * Создает вещи владельца одной транзакцией: строки проверяются за один проход, допустимые вставляются
+     * пакетными INSERT и попадают в поисковый индекс после коммита.
+     */
+    @Transactional
+    public List<BatchResult<ItemDto>> createAll(Long userId, List<ItemDto> itemDtos) {
+        if (userId == null) {
+            throw new ValidationException("Не указан пользователь");
+        }
+        if (!userService.existsById(userId)) {
+            throw new WrongParameterException("Пользователя не существует");
+        }
+        if (itemDtos.size() > batchMaxSize) {
+            throw new ValidationException("В пакете больше " + batchMaxSize + " строк");
+        }
+        Set<Long> requestIds = requestDao.findAllById(itemDtos.stream()
+                        .filter(Objects::nonNull)
+                        .map(ItemDto::getRequestId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toSet());
+
+        List<BatchResult<ItemDto>> results = new ArrayList<>(itemDtos.size());
+        List<Item> items = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < itemDtos.size(); i++) {
+            String error = batchValidation(itemDtos.get(i), requestIds);
+            if (error != null) {
+                results.add(BatchResult.rejected(i, error));
+                continue;
+            }
+            Item item = ItemMapper.toItem(itemDtos.get(i));
+            item.setId(null);
+            item.setOwner(userId);
+            items.add(item);
+            positions.add(i);
+            results.add(null);
+        }
+        itemDao.saveAll(items);
+        for (int i = 0; i < items.size(); i++) {
+            searchEngine.index(items.get(i));
+            results.set(positions.get(i), BatchResult.created(positions.get(i), ItemMapper.toItemDto(items.get(i))));
+        }
+        return results;
+    }
+
     @Transactional
+    @CacheEvict(value = CacheConfig.ITEMS, key = "#itemId")
     public ItemDto update(Long userId, Long itemId, ItemDto itemDto) {
         Item item = ItemMapper.toItem(getSimpleItem(itemId));
 
@@ -58,6 +131,7 @@ public class ItemService {
         if (itemDto.getDescription() != null) item.setDescription(itemDto.getDescription());
         if (itemDto.getAvailable() != null) item.setAvailable(itemDto.getAvailable());
         itemDao.save(item);
+        searchEngine.index(item);
         return ItemMapper.toItemDto(item);
     }
 
@@ -66,15 +140,16 @@ public class ItemService {
         Item item = itemDao.findById(itemId)
                 .orElseThrow(() -> new WrongParameterException("Item не сущетвует"));
 
-        List<Booking> lastBookings = bookingDao.findLastBookingByItemId(userId, itemId);
-        List<Booking> nextBookings = bookingDao.findNextBookingsByItemIdAndUserId(userId, itemId);
         BookingDto nextBookingDto = null;
         BookingDto lastBookingDto = null;
-        try {
-            nextBookingDto = BookingMapper.toBookingDto(nextBookings.get(0));
-            lastBookingDto = BookingMapper.toBookingDto(lastBookings.get(0));
-        } catch (IndexOutOfBoundsException ignored) {
-
+        if (Objects.equals(item.getOwner(), userId)) {
+            LocalDateTime now = LocalDateTime.now();
+            lastBookingDto = bookingDao.findFirstByItemIdAndStartBeforeOrderByStartDesc(itemId, now)
+                    .map(BookingMapper::toBookingDto)
+                    .orElse(null);
+            nextBookingDto = bookingDao.findFirstByItemIdAndStartAfterOrderByStartAsc(itemId, now)
+                    .map(BookingMapper::toBookingDto)
+                    .orElse(null);
         }
 
         List<Comment> comments = commentDao.findAllByItemId(itemId);
@@ -91,9 +166,47 @@ public class ItemService {
 
         Pageable pageable = FromSizeRequest.of(from, size);
 
-        return itemDao.findItemsByOwner(userId, pageable).stream()
-                .map(item -> getItem(userId, item.getId()))
+        return toItemInfoDtoList(itemDao.findItemsByOwner(userId, pageable));
+    }
+
+    public KeysetPage<ItemInfoDto> getUserItemsAfter(Long userId, String cursor, int size) {
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<Item> items = itemDao.findItemsByOwnerAndIdGreaterThanOrderByIdAsc(userId,
+                after == null ? 0L : after.getId(), PageRequest.of(0, size));
+
+        String nextCursor = null;
+        if (items.size() == size) {
+            nextCursor = KeysetCursor.of(null, items.get(items.size() - 1).getId()).encode();
+        }
+        return new KeysetPage<>(toItemInfoDtoList(items), nextCursor);
+    }
+
+    private List<ItemInfoDto> toItemInfoDtoList(List<Item> items) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
                 .collect(Collectors.toList());
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingDto> lastBookings = bookingDao.findLastBookingsByItemIds(itemIds, now).stream()
+                .collect(Collectors.toMap(Booking::getItemId, BookingMapper::toBookingDto));
+        Map<Long, BookingDto> nextBookings = bookingDao.findNextBookingsByItemIds(itemIds, now).stream()
+                .collect(Collectors.toMap(Booking::getItemId, BookingMapper::toBookingDto));
+        Map<Long, List<CommentDto>> comments = commentDao.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+
+        List<ItemInfoDto> result = new ArrayList<>();
+        for (Item item : items) {
+            result.add(ItemMapper.toItemInfoDto(item,
+                    nextBookings.get(item.getId()),
+                    lastBookings.get(item.getId()),
+                    comments.getOrDefault(item.getId(), new ArrayList<>())));
+        }
+        return result;
     }
 
     public List<ItemDto> search(String text, int from, int size) {
@@ -102,20 +215,27 @@ public class ItemService {
             return new ArrayList<>();
         }
         Pageable pageable = FromSizeRequest.of(from, size);
-        return ItemMapper.toDtoList(itemDao.findItemsByText(text, pageable));
+        return ItemMapper.toDtoList(searchEngine.search(text, pageable));
     }
 
+    @Cacheable(CacheConfig.ITEMS)
     public ItemDto getSimpleItem(Long itemId) {
         Item item = itemDao.findById(itemId)
                 .orElseThrow(() -> new WrongParameterException("Item не сущетвует"));
         return ItemMapper.toItemDto(item);
     }
 
+    public Map<Long, ItemDto> getSimpleItems(Collection<Long> itemIds) {
+        return itemDao.findAllById(itemIds).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+    }
+
     private void createValidation(Long userId, ItemDto itemDto) {
         if (userId == null) {
             throw new ValidationException("Не указан пользователь");
         }
-        if (userService.getUser(userId) == null) {
+        if (!userService.existsById(userId)) {
             throw new WrongParameterException("Пользователя не существует");
         }
         if (itemDto.getAvailable() == null) {
@@ -128,4 +248,29 @@ public class ItemService {
             throw new ValidationException("Нужно указать description");
         }
     }
-}
\ No newline at end of file
+
+    private static String batchValidation(ItemDto itemDto, Set<Long> requestIds) {
+        if (itemDto == null) {
+            return "Пустая строка";
+        }
+        if (itemDto.getAvailable() == null) {
+            return "Нужно указать available";
+        }
+        if (itemDto.getName() == null || itemDto.getName().isBlank()) {
+            return "Нужно указать name";
+        }
+        if (itemDto.getName().length() > NAME_LENGTH) {
+            return "Название длиннее " + NAME_LENGTH + " символов";
+        }
+        if (itemDto.getDescription() == null || itemDto.getDescription().isBlank()) {
+            return "Нужно указать description";
+        }
+        if (itemDto.getDescription().length() > DESCRIPTION_LENGTH) {
+            return "Описание длиннее " + DESCRIPTION_LENGTH + " символов";
+        }
+        if (itemDto.getRequestId() != null && !requestIds.contains(itemDto.getRequestId())) {
+            return "Запроса с id " + itemDto.getRequestId() + " не существует";
+        }
+        return null;
+    }
+}
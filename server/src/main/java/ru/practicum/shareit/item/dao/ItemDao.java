@@ -5,15 +5,21 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemDao extends JpaRepository<Item, Long> {
     List<Item> findItemsByOwner(Long ownerId, Pageable pageable);
 
-    @Query("SELECT i FROM Item i " +
-            "WHERE UPPER(i.name) LIKE UPPER(concat('%', ?1, '%')) " +
-            "OR UPPER(i.description) LIKE UPPER(concat('%', ?1, '%')) AND i.available IS true")
+    List<Item> findItemsByOwnerAndIdGreaterThanOrderByIdAsc(Long ownerId, Long id, Pageable pageable);
+
+    @Query(value = "SELECT * FROM items i WHERE i.is_available IS TRUE " +
+            "AND (i.name ILIKE concat('%', ?1, '%') OR i.description ILIKE concat('%', ?1, '%')) " +
+            "ORDER BY (i.name ILIKE concat('%', ?1, '%')) DESC, " +
+            "similarity(i.name || ' ' || coalesce(i.description, ''), ?1) DESC, i.id", nativeQuery = true)
     List<Item> findItemsByText(String text, Pageable pageable);
 
     List<Item> findAllByRequestId(Long id);
+
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
 }
\ No newline at end of file
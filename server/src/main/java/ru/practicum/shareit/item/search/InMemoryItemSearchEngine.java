@@ -0,0 +1,264 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dao.ItemDao;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Триграммный инвертированный индекс вещей в памяти процесса.
+ * Отвечает на /items/search без обращения к базе; запись идет в базу, индекс обновляется после коммита.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final char PAD = '\u0000';
+
+    private final ItemDao itemDao;
+
+    @Value("${shareit.search.memory.batch-size:1000}")
+    private int batchSize = 1000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final NavigableMap<String, BitSet> postings = new TreeMap<>();
+    private final BitSet available = new BitSet();
+    private final BitSet freeOrdinals = new BitSet();
+    private Item[] documents = new Item[16];
+    private String[] names = new String[16];
+    private String[] descriptions = new String[16];
+    private int size;
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            postings.clear();
+            available.clear();
+            freeOrdinals.clear();
+            Arrays.fill(documents, null);
+            size = 0;
+            Pageable pageable = PageRequest.of(0, batchSize, Sort.by("id"));
+            Page<Item> page;
+            do {
+                page = itemDao.findAll(pageable);
+                page.forEach(this::put);
+                pageable = page.nextPageable();
+            } while (page.hasNext());
+            log.info("Поисковый индекс построен, вещей: {}, триграмм: {}", ordinals.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        String query = normalize(text);
+        List<Item> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            BitSet candidates = candidates(query);
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+                if (names[ordinal].contains(query) || descriptions[ordinal].contains(query)) {
+                    matches.add(documents[ordinal]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(relevance(query));
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), matches.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), matches.size()) : matches.size();
+        List<Item> result = new ArrayList<>(to - from);
+        for (Item item : matches.subList(from, to)) {
+            result.add(item.toBuilder().build());
+        }
+        return result;
+    }
+
+    @Override
+    public void index(Item item) {
+        Item snapshot = item.toBuilder().build();
+        afterCommit(() -> put(snapshot));
+    }
+
+    /**
+     * Убирает вещь из индекса после коммита, например когда она удалена каскадом вместе с владельцем.
+     * Освободившийся номер документа достается следующей новой вещи.
+     */
+    @Override
+    public void remove(Long itemId) {
+        afterCommit(() -> delete(itemId));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write(change);
+                }
+            });
+        } else {
+            write(change);
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Item item) {
+        Integer existing = ordinals.get(item.getId());
+        int ordinal;
+        if (existing != null) {
+            ordinal = existing;
+            unindex(ordinal);
+        } else {
+            ordinal = freeOrdinals.nextSetBit(0);
+            if (ordinal >= 0) {
+                freeOrdinals.clear(ordinal);
+            } else {
+                ordinal = size++;
+                ensureCapacity(size);
+            }
+            ordinals.put(item.getId(), ordinal);
+        }
+        documents[ordinal] = item;
+        names[ordinal] = normalize(item.getName());
+        descriptions[ordinal] = normalize(item.getDescription());
+        available.set(ordinal, Boolean.TRUE.equals(item.getAvailable()));
+        for (String gram : grams(names[ordinal], descriptions[ordinal])) {
+            postings.computeIfAbsent(gram, key -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private void delete(Long itemId) {
+        Integer ordinal = ordinals.remove(itemId);
+        if (ordinal == null) {
+            return;
+        }
+        unindex(ordinal);
+        available.clear(ordinal);
+        documents[ordinal] = null;
+        names[ordinal] = null;
+        descriptions[ordinal] = null;
+        freeOrdinals.set(ordinal);
+    }
+
+    private void unindex(int ordinal) {
+        for (String gram : grams(names[ordinal], descriptions[ordinal])) {
+            BitSet docs = postings.get(gram);
+            docs.clear(ordinal);
+            if (docs.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private BitSet candidates(String query) {
+        BitSet result;
+        if (query.isEmpty()) {
+            result = new BitSet();
+        } else if (query.length() < GRAM_LENGTH) {
+            result = new BitSet();
+            for (BitSet docs : postings.subMap(query, true, query + Character.MAX_VALUE, true).values()) {
+                result.or(docs);
+            }
+        } else {
+            List<BitSet> lists = new ArrayList<>();
+            for (String gram : grams(query)) {
+                BitSet docs = postings.get(gram);
+                if (docs == null) {
+                    return new BitSet();
+                }
+                lists.add(docs);
+            }
+            lists.sort(Comparator.comparingInt(BitSet::cardinality));
+            result = (BitSet) lists.get(0).clone();
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result.and(lists.get(i));
+            }
+        }
+        result.and(available);
+        return result;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > documents.length) {
+            int length = Math.max(capacity, documents.length * 2);
+            documents = Arrays.copyOf(documents, length);
+            names = Arrays.copyOf(names, length);
+            descriptions = Arrays.copyOf(descriptions, length);
+        }
+    }
+
+    private static Comparator<Item> relevance(String query) {
+        return Comparator.<Item>comparingInt(item -> position(item.getName(), query) < Integer.MAX_VALUE ? 0 : 1)
+                .thenComparingInt(item -> position(item.getName(), query))
+                .thenComparing(Item::getId);
+    }
+
+    private static Set<String> grams(String name, String description) {
+        Set<String> grams = grams(padded(name));
+        grams.addAll(grams(padded(description)));
+        return grams;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    // Хвост из PAD дает каждой подстроке короче триграммы триграмму, начинающуюся с нее
+    private static String padded(String text) {
+        return text.isEmpty() ? text : text + PAD + PAD;
+    }
+
+    private static int position(String field, String query) {
+        int position = normalize(field).indexOf(query);
+        return position < 0 ? Integer.MAX_VALUE : position;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
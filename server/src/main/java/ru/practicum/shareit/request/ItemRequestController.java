@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequestDtoWithItems;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 @Slf4j
@@ -44,8 +45,12 @@ public class ItemRequestController {
     @GetMapping(value = "/all")
     public List<ItemRequestDtoWithItems> getAllItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                             @RequestParam(defaultValue = "0") int from,
-                                                            @RequestParam(defaultValue = "10") int size) {
-        List<ItemRequestDtoWithItems> dtos = requestService.getAllItemRequests(userId, from, size);
+                                                            @RequestParam(defaultValue = "10") int size,
+                                                            @RequestParam(required = false) String cursor,
+                                                            HttpServletResponse response) {
+        List<ItemRequestDtoWithItems> dtos = cursor == null
+                ? requestService.getAllItemRequests(userId, from, size)
+                : requestService.getAllItemRequestsAfter(userId, cursor, size).writeTo(response);
         log.info("Получен список запросов созданных другими пользователями");
         return dtos;
     }
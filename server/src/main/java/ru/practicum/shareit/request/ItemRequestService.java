@@ -2,22 +2,27 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.exception.WrongParameterException;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dao.ItemDao;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dao.ItemRequestDao;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.model.ItemRequestDtoWithItems;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.utility.FromSizeRequest;
+import ru.practicum.shareit.utility.KeysetCursor;
+import ru.practicum.shareit.utility.KeysetPage;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -33,7 +38,7 @@ public class ItemRequestService {
         if (requestDto.getDescription() == null) {
             throw new ValidationException("Описание не может быть пустым");
         }
-        if (userService.getUser(userId) == null) {
+        if (!userService.existsById(userId)) {
             throw new WrongParameterException("Пользователя не существует");
         }
         ItemRequest request = ItemRequestMapper.toItemRequest(requestDto);
@@ -43,7 +48,7 @@ public class ItemRequestService {
     }
 
     public ItemRequestDtoWithItems getItemRequestById(Long userId, Long reqId) {
-        if (userService.getUser(userId) == null) {
+        if (!userService.existsById(userId)) {
             throw new WrongParameterException("Пользователя не существует");
         }
         ItemRequest request = requestDao.findById(reqId)
@@ -58,26 +63,17 @@ public class ItemRequestService {
 
     public List<ItemRequestDtoWithItems> getUserItemRequests(Long userId) {
 
-        if (userService.getUser(userId) == null) {
+        if (!userService.existsById(userId)) {
             throw new WrongParameterException("Пользователя не существует");
         }
 
-        List<ItemRequestDtoWithItems> requestsDto = new ArrayList<>();
-
-        requestDao.findAllByRequestorIdOrderByCreatedDesc(userId)
-                .forEach(request -> {
-                    ItemRequestDtoWithItems dto = ItemRequestMapper.toItemRequestDtoWithItems(request);
-                    dto.setItems(ItemMapper.toDtoList(itemDao.findAllByRequestId(request.getId())));
-                    requestsDto.add(dto);
-                });
-
-        return requestsDto;
+        return withItems(requestDao.findAllByRequestorIdOrderByCreatedDesc(userId));
     }
 
 
     public List<ItemRequestDtoWithItems> getAllItemRequests(Long userId, int from, int size) {
 
-        if (userService.getUser(userId) == null) {
+        if (!userService.existsById(userId)) {
             throw new WrongParameterException("Пользователя не существует");
         }
 
@@ -87,19 +83,55 @@ public class ItemRequestService {
 
         Pageable pageable = FromSizeRequest.of(from, size);
 
-        List<ItemRequest> requests = requestDao.findAll(pageable)
-                .stream()
-                .filter(itemRequest -> !itemRequest.getRequestorId().equals(userId))
+        return withItems(requestDao.findAllByRequestorIdNotOrderByCreatedDescIdDesc(userId, pageable));
+    }
+
+    public KeysetPage<ItemRequestDtoWithItems> getAllItemRequestsAfter(Long userId, String cursor, int size) {
+
+        if (!userService.existsById(userId)) {
+            throw new WrongParameterException("Пользователя не существует");
+        }
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable pageable = PageRequest.of(0, size);
+        List<ItemRequest> requests;
+        if (after == null) {
+            requests = requestDao.findAllByRequestorIdNotOrderByCreatedDescIdDesc(userId, pageable);
+        } else if (after.getTimestamp() == null) {
+            throw new ValidationException("Некорректный cursor");
+        } else {
+            requests = requestDao.findAllByRequestorIdNotCreatedBefore(userId,
+                    after.getTimestamp(), after.getId(), pageable);
+        }
+
+        List<ItemRequestDtoWithItems> requestsDto = withItems(requests);
+
+        String nextCursor = null;
+        if (requests.size() == size) {
+            ItemRequest last = requests.get(requests.size() - 1);
+            nextCursor = KeysetCursor.of(last.getCreated(), last.getId()).encode();
+        }
+        return new KeysetPage<>(requestsDto, nextCursor);
+    }
+
+    // Вещи всех запросов страницы читаются одним запросом IN (request_id) и раскладываются по запросам в памяти
+    private List<ItemRequestDtoWithItems> withItems(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
                 .collect(Collectors.toList());
 
-        List<ItemRequestDtoWithItems> requestsDto = new ArrayList<>();
+        Map<Long, List<Item>> items = itemDao.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(Item::getRequestId));
 
-        requests.forEach(request -> {
+        List<ItemRequestDtoWithItems> requestsDto = new ArrayList<>();
+        for (ItemRequest request : requests) {
             ItemRequestDtoWithItems dto = ItemRequestMapper.toItemRequestDtoWithItems(request);
-            dto.setItems(ItemMapper.toDtoList(itemDao.findAllByRequestId(request.getId())));
+            dto.setItems(ItemMapper.toDtoList(items.getOrDefault(request.getId(), new ArrayList<>())));
             requestsDto.add(dto);
-        });
-
+        }
         return requestsDto;
     }
 }
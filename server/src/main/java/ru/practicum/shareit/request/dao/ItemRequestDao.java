@@ -1,12 +1,22 @@
 package ru.practicum.shareit.request.dao;
 
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestDao extends JpaRepository<ItemRequest, Long> {
 
     List<ItemRequest> findAllByRequestorIdOrderByCreatedDesc(Long userId);
+
+    List<ItemRequest> findAllByRequestorIdNotOrderByCreatedDescIdDesc(Long userId, Pageable pageable);
+
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestorId <> ?1 " +
+            "AND (r.created < ?2 OR (r.created = ?2 AND r.id < ?3)) ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllByRequestorIdNotCreatedBefore(Long userId, LocalDateTime created, Long id,
+                                                           Pageable pageable);
 }
@@ -1,10 +1,21 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.utility.BatchResult;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @Slf4j
@@ -14,6 +25,7 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper mapper;
 
     @PostMapping
     public UserDto create(@RequestBody UserDto userDto) {
@@ -22,6 +34,13 @@ public class UserController {
         return user;
     }
 
+    @PostMapping("/batch")
+    public List<BatchResult<UserDto>> createAll(@RequestBody List<UserDto> userDtos) {
+        List<BatchResult<UserDto>> results = userService.createAll(userDtos);
+        log.info("Пакет из {} пользователей обработан", userDtos.size());
+        return results;
+    }
+
     @PatchMapping("/{userId}")
     public UserDto update(@PathVariable Long userId, @RequestBody UserDto userDto) {
         UserDto user = userService.update(userId, userDto);
@@ -36,9 +55,28 @@ public class UserController {
         return user;
     }
 
+    @GetMapping(params = {"!from", "!size", "!cursor"})
+    public ResponseEntity<StreamingResponseBody> exportAll(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        StreamingResponseBody body = out -> {
+            writeUsers(out, ndjson);
+            log.info("Пользователи выгружены");
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping
-    List<UserDto> getAll() {
-        List<UserDto> users = userService.getAll();
+    List<UserDto> getAll(@RequestParam(defaultValue = "0") int from,
+                         @RequestParam(defaultValue = "10") int size,
+                         @RequestParam(required = false) String cursor,
+                         HttpServletResponse response) {
+        List<UserDto> users = cursor == null
+                ? userService.getAll(from, size)
+                : userService.getAllAfter(cursor, size).writeTo(response);
         log.info("Пользователи получены");
         return users;
     }
@@ -48,4 +86,27 @@ public class UserController {
         userService.delete(userId);
         log.info("Пользователь с id {} удален", userId);
     }
+
+    // JSON-массив или NDJSON пишется в ответ по мере чтения строк; буфер контейнера отправляется частями
+    private void writeUsers(OutputStream out, boolean ndjson) throws IOException {
+        try (JsonGenerator generator = mapper.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            userService.exportAll(user -> {
+                try {
+                    generator.writeObject(user);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        }
+    }
 }
@@ -1,21 +1,52 @@
 package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.exception.WrongParameterException;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.user.dao.UserDao;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utility.BatchResult;
+import ru.practicum.shareit.utility.FromSizeRequest;
+import ru.practicum.shareit.utility.KeysetCursor;
+import ru.practicum.shareit.utility.KeysetPage;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+");
+    private static final int NAME_LENGTH = 255;
+    private static final int EMAIL_LENGTH = 512;
+
     private final UserDao dao;
+    private final ItemSearchEngine searchEngine;
+
+    @Value("${shareit.batch.max-size:1000}")
+    private int batchMaxSize = 1000;
 
     @Transactional
     public UserDto create(UserDto userDto) {
@@ -24,7 +55,47 @@ public class UserService {
         return UserMapper.toUserDto(user);
     }
 
+    /**
+     * Создает пользователей одной транзакцией: строки проверяются за один проход, допустимые вставляются
+     * пакетными INSERT, для каждой строки возвращается созданный пользователь или причина отказа.
+     */
     @Transactional
+    public List<BatchResult<UserDto>> createAll(List<UserDto> userDtos) {
+        if (userDtos.size() > batchMaxSize) {
+            throw new ValidationException("В пакете больше " + batchMaxSize + " строк");
+        }
+        Set<String> taken = new HashSet<>(dao.findEmailsIn(userDtos.stream()
+                .filter(Objects::nonNull)
+                .map(UserDto::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet())));
+
+        List<BatchResult<UserDto>> results = new ArrayList<>(userDtos.size());
+        List<User> users = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < userDtos.size(); i++) {
+            UserDto userDto = userDtos.get(i);
+            String error = batchValidation(userDto, taken);
+            if (error != null) {
+                results.add(BatchResult.rejected(i, error));
+                continue;
+            }
+            taken.add(userDto.getEmail());
+            User user = UserMapper.toUser(userDto);
+            user.setId(null);
+            users.add(user);
+            positions.add(i);
+            results.add(null);
+        }
+        dao.saveAll(users);
+        for (int i = 0; i < users.size(); i++) {
+            results.set(positions.get(i), BatchResult.created(positions.get(i), UserMapper.toUserDto(users.get(i))));
+        }
+        return results;
+    }
+
+    @Transactional
+    @CacheEvict(value = CacheConfig.USERS, key = "#userId")
     public UserDto update(Long userId, UserDto userDto) {
         User user = UserMapper.toUser(getUser(userId));
         if (userDto.getName() != null) user.setName(userDto.getName());
@@ -33,17 +104,80 @@ public class UserService {
         return UserMapper.toUserDto(user);
     }
 
+    @Cacheable(CacheConfig.USERS)
     public UserDto getUser(Long userId) {
         User user = dao.findById(userId).orElseThrow(() -> new WrongParameterException("User не найден"));
         return UserMapper.toUserDto(user);
     }
 
-    public List<UserDto> getAll() {
-        return UserMapper.toUserDtoList(dao.findAll());
+    @Cacheable(value = CacheConfig.USER_IDS, unless = "!#result")
+    public boolean existsById(Long userId) {
+        return dao.existsById(userId);
+    }
+
+    public Map<Long, UserDto> getUsers(Collection<Long> userIds) {
+        return dao.findAllById(userIds).stream()
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toMap(UserDto::getId, Function.identity()));
+    }
+
+    public List<UserDto> getAll(int from, int size) {
+        return dao.findPage(FromSizeRequest.of(from, size));
+    }
+
+    public KeysetPage<UserDto> getAllAfter(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<UserDto> users = dao.findPageAfter(after == null ? 0L : after.getId(), PageRequest.of(0, size));
+
+        String nextCursor = null;
+        if (users.size() == size) {
+            nextCursor = KeysetCursor.of(null, users.get(users.size() - 1).getId()).encode();
+        }
+        return new KeysetPage<>(users, nextCursor);
+    }
+
+    /**
+     * Передает всех пользователей по одному, читая таблицу курсором внутри одной транзакции.
+     */
+    public void exportAll(Consumer<UserDto> consumer) {
+        try (Stream<UserDto> users = dao.streamAll()) {
+            users.forEach(consumer);
+        }
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.USERS, key = "#userId"),
+            @CacheEvict(value = CacheConfig.USER_IDS, key = "#userId"),
+            @CacheEvict(value = CacheConfig.ITEMS, allEntries = true)
+    })
     public void delete(Long userId) {
+        // Вещи пользователя удаляет каскад в базе, поэтому из поискового индекса они убираются по id
+        List<Long> itemIds = dao.findOwnedItemIds(userId);
         dao.deleteById(userId);
+        dao.evictOwnedEntities();
+        itemIds.forEach(searchEngine::remove);
+    }
+
+    private static String batchValidation(UserDto userDto, Set<String> taken) {
+        if (userDto == null) {
+            return "Пустая строка";
+        }
+        if (userDto.getName() == null || userDto.getName().isBlank()) {
+            return "Нужно указать name";
+        }
+        if (userDto.getName().length() > NAME_LENGTH) {
+            return "Имя длиннее " + NAME_LENGTH + " символов";
+        }
+        if (userDto.getEmail() == null || !EMAIL.matcher(userDto.getEmail()).matches()) {
+            return "Некорректный email";
+        }
+        if (userDto.getEmail().length() > EMAIL_LENGTH) {
+            return "Email длиннее " + EMAIL_LENGTH + " символов";
+        }
+        if (taken.contains(userDto.getEmail())) {
+            return "Email уже занят";
+        }
+        return null;
     }
 }
@@ -1,8 +1,37 @@
 package ru.practicum.shareit.user.dao;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
-public interface UserDao extends JpaRepository<User, Long> {
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
-}
\ No newline at end of file
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface UserDao extends JpaRepository<User, Long>, UserDaoCustom {
+
+    // Проекция в DTO не кладет сущности в контекст персистентности, поэтому память не растет с числом строк
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) FROM User u ORDER BY u.id")
+    Stream<UserDto> streamAll();
+
+    @Query("SELECT new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) FROM User u ORDER BY u.id")
+    List<UserDto> findPage(Pageable pageable);
+
+    @Query("SELECT new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) FROM User u " +
+            "WHERE u.id > ?1 ORDER BY u.id")
+    List<UserDto> findPageAfter(Long id, Pageable pageable);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN ?1")
+    Set<String> findEmailsIn(Collection<String> emails);
+
+    @Query("SELECT i.id FROM Item i WHERE i.owner = ?1")
+    List<Long> findOwnedItemIds(Long userId);
+}
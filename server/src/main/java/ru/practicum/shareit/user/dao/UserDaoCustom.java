@@ -0,0 +1,11 @@
+package ru.practicum.shareit.user.dao;
+
+public interface UserDaoCustom {
+
+    /**
+     * Сбрасывает из кэша второго уровня вещи и отзывы, которые база удаляет каскадом вместе с пользователем:
+     * Hibernate об этом удалении не знает. Сброс выполняется после коммита, чтобы параллельная транзакция
+     * не успела положить в кэш еще не удаленные строки.
+     */
+    void evictOwnedEntities();
+}
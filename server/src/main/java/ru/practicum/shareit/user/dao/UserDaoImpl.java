@@ -0,0 +1,38 @@
+package ru.practicum.shareit.user.dao;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+class UserDaoImpl implements UserDaoCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void evictOwnedEntities() {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(cache);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(cache);
+            }
+        });
+    }
+
+    private static void evict(Cache cache) {
+        cache.evictEntityData(Item.class);
+        cache.evictEntityData(Comment.class);
+        cache.evictQueryRegions();
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.utility;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Результат одной строки пакетной загрузки: созданный объект или причина, по которой строка отклонена.
+ * index - позиция строки в исходном запросе.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class BatchResult<T> {
+
+    public enum Status { CREATED, REJECTED }
+
+    private final int index;
+    private final Status status;
+    private final T result;
+    private final String error;
+
+    public static <T> BatchResult<T> created(int index, T result) {
+        return new BatchResult<>(index, Status.CREATED, result, null);
+    }
+
+    public static <T> BatchResult<T> rejected(int index, String error) {
+        return new BatchResult<>(index, Status.REJECTED, null, error);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.utility;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public List<T> writeTo(HttpServletResponse response) {
+        if (nextCursor != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return items;
+    }
+}
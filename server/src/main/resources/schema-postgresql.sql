@@ -0,0 +1,14 @@
+-- Выполняется после schema.sql: порядок задан в spring.sql.init.schema-locations
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS items_name_trgm_index ON items USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS items_description_trgm_index ON items USING gin (description gin_trgm_ops);
+
+-- Строки, вставленные до перехода на последовательности, получили id из IDENTITY: последовательность
+-- переводится за максимальный id, только если он ее догнал, поэтому на пустой базе id начинаются с 1
+SELECT setval('users_seq', MAX(id)) FROM users HAVING MAX(id) >= (SELECT last_value FROM users_seq);
+SELECT setval('items_seq', MAX(id)) FROM items HAVING MAX(id) >= (SELECT last_value FROM items_seq);
+SELECT setval('requests_seq', MAX(id)) FROM requests HAVING MAX(id) >= (SELECT last_value FROM requests_seq);
+SELECT setval('bookings_seq', MAX(id)) FROM bookings HAVING MAX(id) >= (SELECT last_value FROM bookings_seq);
+SELECT setval('comments_seq', MAX(id)) FROM comments HAVING MAX(id) >= (SELECT last_value FROM comments_seq);
@@ -1,3 +1,9 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users
 (
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -18,6 +24,7 @@ CREATE TABLE IF NOT EXISTS requests
 );
 
 CREATE INDEX IF NOT EXISTS fk_requests_index ON requests (requestor_id);
+CREATE INDEX IF NOT EXISTS requests_created_index ON requests (created DESC, id DESC);
 
 CREATE TABLE IF NOT EXISTS items
 (
@@ -32,7 +39,8 @@ CREATE TABLE IF NOT EXISTS items
     CONSTRAINT pk_item PRIMARY KEY (id)
 );
 
-CREATE INDEX IF NOT EXISTS fk_items_users_index ON items (owner_id);
+DROP INDEX IF EXISTS fk_items_users_index;
+CREATE INDEX IF NOT EXISTS items_owner_id_index ON items (owner_id, id);
 CREATE INDEX IF NOT EXISTS fk_items_requests_index ON items (request_id);
 
 CREATE TABLE IF NOT EXISTS bookings
@@ -45,11 +53,21 @@ CREATE TABLE IF NOT EXISTS bookings
         CONSTRAINT fk_bookings_item_id REFERENCES items (id),
     booker_id  BIGINT                                  NOT NULL
         CONSTRAINT fk_bookings_user_id REFERENCES users (id),
+    owner_id   BIGINT                                  NOT NULL,
+    version    BIGINT DEFAULT 0                        NOT NULL,
     CONSTRAINT pk_booking PRIMARY KEY (id)
 );
 
-CREATE INDEX IF NOT EXISTS fk_bookings_items_index ON bookings (item_id);
-CREATE INDEX IF NOT EXISTS fk_bookings_users_index ON bookings (booker_id);
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS owner_id BIGINT;
+UPDATE bookings SET owner_id = (SELECT i.owner_id FROM items i WHERE i.id = bookings.item_id) WHERE owner_id IS NULL;
+ALTER TABLE bookings ALTER COLUMN owner_id SET NOT NULL;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+DROP INDEX IF EXISTS fk_bookings_items_index;
+CREATE INDEX IF NOT EXISTS bookings_item_start_index ON bookings (item_id, start_date);
+DROP INDEX IF EXISTS fk_bookings_users_index;
+CREATE INDEX IF NOT EXISTS bookings_booker_start_index ON bookings (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS bookings_owner_start_index ON bookings (owner_id, start_date DESC);
 
 CREATE TABLE IF NOT EXISTS comments
 (
@@ -0,0 +1,98 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dao.BookingDao;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.comment.dao.CommentDao;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.item.dao.ItemDao;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dao.ItemRequestDao;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dao.UserDao;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Запуск на базе, созданной исходной схемой с IDENTITY-ключами и уже заполненной данными.
+ */
+@DataJpaTest
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchemaUpgradePostgresTest {
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14-alpine")
+            .withInitScript("baseline-schema.sql");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driverClassName", POSTGRES::getDriverClassName);
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.sql.init.platform", () -> "postgresql");
+    }
+
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private ItemDao itemDao;
+    @Autowired
+    private ItemRequestDao requestDao;
+    @Autowired
+    private BookingDao bookingDao;
+    @Autowired
+    private CommentDao commentDao;
+
+    @Test
+    void existingUsersAndItemsSurviveTest() {
+        assertEquals("requestor", userDao.findById(7L).orElseThrow().getName());
+        assertEquals("Отвертка", itemDao.findById(9L).orElseThrow().getName());
+    }
+
+    @Test
+    void newUsersAndItemsGetIdsPastExistingTest() {
+        User user = userDao.save(User.builder().name("new").email("new@mail.ru").build());
+        Item item = itemDao.save(Item.builder().name("Пила").description("Ручная")
+                .available(true).owner(user.getId()).build());
+
+        assertTrue(user.getId() > 7);
+        assertTrue(item.getId() > 9);
+    }
+
+    @Test
+    void existingBookingGetsOwnerAndVersionTest() {
+        Booking booking = bookingDao.findById(12L).orElseThrow();
+
+        assertEquals(1L, booking.getOwnerId());
+        assertEquals(0L, booking.getVersion());
+    }
+
+    @Test
+    void newRequestsBookingsAndCommentsGetIdsPastExistingTest() {
+        LocalDateTime now = LocalDateTime.now();
+        ItemRequest request = requestDao.save(ItemRequest.builder().description("Нужна пила")
+                .requestorId(7L).created(now).build());
+        Booking booking = bookingDao.save(Booking.builder().start(now.plusDays(1)).end(now.plusDays(2))
+                .status(BookingStatus.WAITING).itemId(9L).bookerId(2L).ownerId(1L).build());
+        Comment comment = commentDao.save(Comment.builder().text("Удобная").created(now)
+                .item(itemDao.findById(9L).orElseThrow()).author(userDao.findById(2L).orElseThrow()).build());
+
+        assertTrue(request.getId() > 4);
+        assertTrue(booking.getId() > 12);
+        assertTrue(comment.getId() > 3);
+    }
+}
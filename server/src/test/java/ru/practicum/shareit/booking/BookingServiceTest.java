@@ -4,16 +4,22 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.BookingCalendar;
 import ru.practicum.shareit.booking.dao.BookingDao;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.FreeSlotDto;
 import ru.practicum.shareit.booking.dto.FullBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.comment.dao.CommentDao;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.exception.WrongParameterException;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.item.dao.ItemDao;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.DatabaseItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.dao.ItemRequestDao;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.dao.UserDao;
 import ru.practicum.shareit.user.model.User;
@@ -26,8 +32,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @Transactional
 @SpringBootTest
@@ -52,20 +57,22 @@ class BookingServiceTest {
         item = new Item(1L, "item", "description",
                 true, owner.getId(), null);
         booking = new Booking(1L, LocalDateTime.now().plusMinutes(1), LocalDateTime.now().plusDays(1),
-                BookingStatus.WAITING, item.getId(), booker.getId());
+                BookingStatus.WAITING, item.getId(), booker.getId(), owner.getId(), null);
         bookingDao = mock(BookingDao.class);
         userDao = mock(UserDao.class);
         itemDao = mock(ItemDao.class);
         CommentDao commentDao = mock(CommentDao.class);
-        UserService userService = new UserService(userDao);
-        ItemService itemService = new ItemService(itemDao, bookingDao, commentDao, userService);
-        bookingService = new BookingService(bookingDao, userService, itemService);
+        UserService userService = new UserService(userDao, mock(ItemSearchEngine.class));
+        ItemService itemService = new ItemService(itemDao, bookingDao, commentDao, userService,
+                new DatabaseItemSearchEngine(itemDao), mock(ItemRequestDao.class));
+        bookingService = new BookingService(bookingDao, userService, itemService, new BookingCalendar(bookingDao));
     }
 
     @Test
     void createBookingTest() {
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(any())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.save(any(Booking.class)))
@@ -79,15 +86,56 @@ class BookingServiceTest {
         assertEquals(booking.getId(), bookingDto.getId());
     }
 
+    @Test
+    void createOverlappingBookingTest() {
+        Booking existing = new Booking(5L, booking.getStart().minusHours(1), booking.getStart().plusHours(1),
+                BookingStatus.APPROVED, item.getId(), 3L, owner.getId(), null);
+        when(userDao.findById(any()))
+                .thenReturn(Optional.of(booker));
+        when(userDao.existsById(any())).thenReturn(true);
+        when(itemDao.findById(any()))
+                .thenReturn(Optional.of(item));
+        when(bookingDao.findAllByItemIdAndStatusInAndEndAfter(eq(item.getId()), any(), any()))
+                .thenReturn(List.of(existing));
+
+        assertThrows(ConflictException.class,
+                () -> bookingService.create(booker.getId(), BookingMapper.toBookingDto(booking)));
+        verify(bookingDao, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void getAvailabilityTest() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        Booking existing = new Booking(5L, from.plusDays(1), from.plusDays(2),
+                BookingStatus.WAITING, item.getId(), booker.getId(), owner.getId(), null);
+        when(userDao.findById(any()))
+                .thenReturn(Optional.of(owner));
+        when(userDao.existsById(any())).thenReturn(true);
+        when(itemDao.findById(any()))
+                .thenReturn(Optional.of(item));
+        when(bookingDao.findAllByItemIdAndStatusInAndEndAfter(eq(item.getId()), any(), any()))
+                .thenReturn(List.of(existing));
+
+        List<FreeSlotDto> slots = bookingService.getAvailability(owner.getId(), item.getId(), from, from.plusDays(3));
+
+        assertEquals(2, slots.size());
+        assertEquals(from, slots.get(0).getStart());
+        assertEquals(existing.getStart(), slots.get(0).getEnd());
+        assertEquals(existing.getEnd(), slots.get(1).getStart());
+        assertEquals(from.plusDays(3), slots.get(1).getEnd());
+    }
+
     @Test
     void updateBookingStatusTest() {
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(any())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.save(any(Booking.class)))
                 .thenReturn(booking);
         when(bookingDao.findById(any())).thenReturn(Optional.ofNullable(booking));
+        when(bookingDao.findItemIdById(any())).thenReturn(Optional.of(item.getId()));
 
         FullBookingDto updatedBooking = bookingService.updateStatus(owner.getId(), booking.getId(), false);
 
@@ -95,10 +143,42 @@ class BookingServiceTest {
         assertEquals(BookingStatus.REJECTED, updatedBooking.getStatus());
     }
 
+    @Test
+    void approveRejectedBookingOverlappingApprovedTest() {
+        booking.setStatus(BookingStatus.REJECTED);
+        Booking approved = new Booking(5L, booking.getStart().minusHours(1), booking.getStart().plusHours(1),
+                BookingStatus.APPROVED, item.getId(), 3L, owner.getId(), null);
+        when(bookingDao.findById(any())).thenReturn(Optional.of(booking));
+        when(bookingDao.findItemIdById(any())).thenReturn(Optional.of(item.getId()));
+        when(bookingDao.findAllByItemIdAndStatusInAndEndAfter(eq(item.getId()), any(), any()))
+                .thenReturn(List.of(approved));
+
+        assertThrows(ConflictException.class, () -> bookingService.updateStatus(owner.getId(), booking.getId(), true));
+        assertEquals(BookingStatus.REJECTED, booking.getStatus());
+        verify(bookingDao, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void approveRejectedBookingWhenItemFreeTest() {
+        booking.setStatus(BookingStatus.REJECTED);
+        when(userDao.findById(any()))
+                .thenReturn(Optional.of(booker));
+        when(userDao.existsById(any())).thenReturn(true);
+        when(itemDao.findById(any()))
+                .thenReturn(Optional.of(item));
+        when(bookingDao.findById(any())).thenReturn(Optional.of(booking));
+        when(bookingDao.findItemIdById(any())).thenReturn(Optional.of(item.getId()));
+
+        FullBookingDto updatedBooking = bookingService.updateStatus(owner.getId(), booking.getId(), true);
+
+        assertEquals(BookingStatus.APPROVED, updatedBooking.getStatus());
+    }
+
     @Test
     void getBookingTest() {
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(any())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.save(any(Booking.class)))
@@ -120,13 +200,15 @@ class BookingServiceTest {
 
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.findById(booking.getId()))
                 .thenReturn(Optional.of(updatedBooking));
-        when(bookingDao.findCurrentBookingsByOwner(any(), any()))
+        when(bookingDao.findList(any(), any()))
                 .thenReturn(Collections.singletonList(updatedBooking));
 
         List<FullBookingDto> list = bookingService.bookingsByOwner(owner.getId(), "CURRENT", 0, 20);
@@ -143,13 +225,15 @@ class BookingServiceTest {
 
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.findById(booking.getId()))
                 .thenReturn(Optional.of(updatedBooking));
-        when(bookingDao.findFutureBookingsByOwner(any(), any()))
+        when(bookingDao.findList(any(), any()))
                 .thenReturn(Collections.singletonList(updatedBooking));
         List<FullBookingDto> list = bookingService.bookingsByOwner(owner.getId(), "FUTURE", 0, 20);
 
@@ -165,13 +249,15 @@ class BookingServiceTest {
 
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.findById(booking.getId()))
                 .thenReturn(Optional.of(updatedBooking));
-        when(bookingDao.findPastBookingsByOwner(any(), any()))
+        when(bookingDao.findList(any(), any()))
                 .thenReturn(Collections.singletonList(updatedBooking));
         List<FullBookingDto> list = bookingService.bookingsByOwner(owner.getId(), "PAST", 0, 20);
 
@@ -186,13 +272,15 @@ class BookingServiceTest {
 
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.findById(booking.getId()))
                 .thenReturn(Optional.of(updatedBooking));
-        when(bookingDao.findWaitingBookingsByOwner(any(), any()))
+        when(bookingDao.findList(any(), any()))
                 .thenReturn(Collections.singletonList(updatedBooking));
         List<FullBookingDto> list = bookingService.bookingsByOwner(owner.getId(), "WAITING", 0, 20);
 
@@ -207,13 +295,15 @@ class BookingServiceTest {
 
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.findById(booking.getId()))
                 .thenReturn(Optional.of(updatedBooking));
-        when(bookingDao.findRejectedBookingsByOwner(any(), any()))
+        when(bookingDao.findList(any(), any()))
                 .thenReturn(Collections.singletonList(updatedBooking));
         List<FullBookingDto> list = bookingService.bookingsByOwner(owner.getId(), "REJECTED", 0, 20);
 
@@ -225,28 +315,61 @@ class BookingServiceTest {
     void bookingsByOwnerAllTest() {
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.save(any(Booking.class)))
                 .thenReturn(booking);
         when(bookingDao.findById(booking.getId())).thenReturn(Optional.ofNullable(booking));
-        when(bookingDao.findBookingsByOwner(any(), any()))
+        when(bookingDao.findList(any(), any()))
                 .thenReturn(Collections.singletonList(booking));
+        when(userDao.findAllById(any()))
+                .thenReturn(List.of(booker));
+        when(itemDao.findAllById(any()))
+                .thenReturn(List.of(item));
 
         List<FullBookingDto> list = bookingService.bookingsByOwner(owner.getId(), "ALL", 0, 20);
 
         assertNotNull(list);
         assertEquals(1, list.size());
+        assertEquals("user2", list.get(0).getBooker().getName());
+        assertEquals("item", list.get(0).getItem().getName());
+    }
+
+    @Test
+    void bookingsByOwnerBatchHydrationTest() {
+        Booking secondBooking = booking.toBuilder().id(2L).build();
+
+        when(userDao.findById(owner.getId()))
+                .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
+        when(bookingDao.findList(any(), any()))
+                .thenReturn(List.of(booking, secondBooking));
+        when(userDao.findAllById(any()))
+                .thenReturn(List.of(booker));
+        when(itemDao.findAllById(any()))
+                .thenReturn(List.of(item));
+
+        List<FullBookingDto> list = bookingService.bookingsByOwner(owner.getId(), "ALL", 0, 20);
+
+        assertEquals(2, list.size());
+        assertEquals("user2", list.get(1).getBooker().getName());
+        verify(userDao, times(1)).findAllById(any());
+        verify(itemDao, times(1)).findAllById(any());
+        verify(itemDao, never()).findById(any());
     }
 
     @Test
     void bookingsByOwnerWrongStateTest() {
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.save(any(Booking.class)))
@@ -264,13 +387,15 @@ class BookingServiceTest {
 
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.findById(booking.getId()))
                 .thenReturn(Optional.of(updatedBooking));
-        when(bookingDao.findCurrentBookingsByBooker(any(), any()))
+        when(bookingDao.findList(any(), any()))
                 .thenReturn(Collections.singletonList(updatedBooking));
 
         List<FullBookingDto> list = bookingService.bookingsByBooker(owner.getId(), "CURRENT", 0, 20);
@@ -287,13 +412,15 @@ class BookingServiceTest {
 
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.findById(booking.getId()))
                 .thenReturn(Optional.of(updatedBooking));
-        when(bookingDao.findFutureBookingsByBooker(any(), any()))
+        when(bookingDao.findList(any(), any()))
                 .thenReturn(Collections.singletonList(updatedBooking));
         List<FullBookingDto> list = bookingService.bookingsByBooker(owner.getId(), "FUTURE", 0, 20);
 
@@ -309,13 +436,15 @@ class BookingServiceTest {
 
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.findById(booking.getId()))
                 .thenReturn(Optional.of(updatedBooking));
-        when(bookingDao.findPastBookingsByBooker(any(), any()))
+        when(bookingDao.findList(any(), any()))
                 .thenReturn(Collections.singletonList(updatedBooking));
         List<FullBookingDto> list = bookingService.bookingsByBooker(owner.getId(), "PAST", 0, 20);
 
@@ -330,13 +459,15 @@ class BookingServiceTest {
 
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.findById(booking.getId()))
                 .thenReturn(Optional.of(updatedBooking));
-        when(bookingDao.findWaitingBookingsByBooker(any(), any()))
+        when(bookingDao.findList(any(), any()))
                 .thenReturn(Collections.singletonList(updatedBooking));
         List<FullBookingDto> list = bookingService.bookingsByBooker(owner.getId(), "WAITING", 0, 20);
 
@@ -351,13 +482,15 @@ class BookingServiceTest {
 
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.findById(booking.getId()))
                 .thenReturn(Optional.of(updatedBooking));
-        when(bookingDao.findRejectedBookingsByBooker(any(), any()))
+        when(bookingDao.findList(any(), any()))
                 .thenReturn(Collections.singletonList(updatedBooking));
         List<FullBookingDto> list = bookingService.bookingsByBooker(owner.getId(), "REJECTED", 0, 20);
 
@@ -369,28 +502,37 @@ class BookingServiceTest {
     void bookingsByBookerAllTest() {
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.save(any(Booking.class)))
                 .thenReturn(booking);
         when(bookingDao.findById(booking.getId())).thenReturn(Optional.ofNullable(booking));
-        when(bookingDao.findBookingsByBookerIdOrderByStartDesc(any(), any()))
+        when(bookingDao.findList(any(), any()))
                 .thenReturn(Collections.singletonList(booking));
+        when(userDao.findAllById(any()))
+                .thenReturn(List.of(booker));
+        when(itemDao.findAllById(any()))
+                .thenReturn(List.of(item));
 
         List<FullBookingDto> list = bookingService.bookingsByBooker(booker.getId(), "ALL", 0, 20);
 
         assertNotNull(list);
         assertEquals(1, list.size());
+        assertEquals("item", list.get(0).getItem().getName());
     }
 
     @Test
     void bookingsByBookerWrongStateTest() {
         when(userDao.findById(owner.getId()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(owner.getId())).thenReturn(true);
         when(userDao.findById(booker.getId()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(booker.getId())).thenReturn(true);
         when(itemDao.findById(any()))
                 .thenReturn(Optional.of(item));
         when(bookingDao.save(any(Booking.class)))
@@ -411,6 +553,7 @@ class BookingServiceTest {
     void bookingValidationBookerIsOwnerTest() {
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(any())).thenReturn(true);
         assertThrows(WrongParameterException.class,
                 () -> bookingService.create(owner.getId(), BookingMapper.toBookingDto(booking)));
     }
@@ -420,6 +563,7 @@ class BookingServiceTest {
         BookingDto bookingDto = BookingMapper.toBookingDto(booking);
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(owner));
+        when(userDao.existsById(any())).thenReturn(true);
         bookingDto.setItemId(null);
         assertThrows(WrongParameterException.class,
                 () -> bookingService.create(owner.getId(), bookingDto));
@@ -430,6 +574,7 @@ class BookingServiceTest {
         BookingDto bookingDto = BookingMapper.toBookingDto(booking);
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(any())).thenReturn(true);
         bookingDto.setEnd(LocalDateTime.now().minusDays(10));
         assertThrows(ValidationException.class,
                 () -> bookingService.create(owner.getId(), bookingDto));
@@ -440,6 +585,7 @@ class BookingServiceTest {
         BookingDto bookingDto = BookingMapper.toBookingDto(booking);
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(any())).thenReturn(true);
         bookingDto.setStart(LocalDateTime.now().minusDays(10));
         assertThrows(ValidationException.class,
                 () -> bookingService.create(owner.getId(), bookingDto));
@@ -450,6 +596,7 @@ class BookingServiceTest {
         BookingDto bookingDto = BookingMapper.toBookingDto(booking);
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(any())).thenReturn(true);
         bookingDto.setEnd(LocalDateTime.now().plusDays(1));
         bookingDto.setStart(LocalDateTime.now().plusDays(2));
         assertThrows(ValidationException.class,
@@ -464,6 +611,7 @@ class BookingServiceTest {
 
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(booker));
+        when(userDao.existsById(any())).thenReturn(true);
         when(itemDao.findById(anyLong()))
                 .thenReturn(Optional.of(busyItem));
         assertThrows(ValidationException.class,
@@ -0,0 +1,242 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dao.BookingDao;
+import ru.practicum.shareit.booking.dto.FreeSlotDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BookingCalendarTest {
+
+    private BookingDao bookingDao;
+    private BookingCalendar calendar;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        bookingDao = mock(BookingDao.class);
+        calendar = new BookingCalendar(bookingDao);
+        base = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    @Test
+    void reserveRejectsOverlapTest() {
+        calendar.reserve(1L, base, base.plusDays(2));
+
+        assertThrows(ConflictException.class, () -> calendar.reserve(1L, base.plusDays(1), base.plusDays(3)));
+        assertThrows(ConflictException.class, () -> calendar.reserve(1L, base.minusDays(1), base.plusHours(1)));
+        assertFalse(calendar.isFree(1L, base.plusHours(1), base.plusHours(2)));
+        assertTrue(calendar.isFree(1L, base.plusDays(2), base.plusDays(3)));
+        assertTrue(calendar.isFree(2L, base, base.plusDays(2)));
+    }
+
+    @Test
+    void freeSlotsMergesAdjacentBookingsTest() {
+        calendar.reserve(1L, base.plusDays(1), base.plusDays(2));
+        calendar.reserve(1L, base.plusDays(2), base.plusDays(3));
+        calendar.reserve(1L, base.plusDays(5), base.plusDays(6));
+
+        List<FreeSlotDto> slots = calendar.freeSlots(1L, base, base.plusDays(10));
+
+        assertEquals(3, slots.size());
+        assertEquals(base, slots.get(0).getStart());
+        assertEquals(base.plusDays(1), slots.get(0).getEnd());
+        assertEquals(base.plusDays(3), slots.get(1).getStart());
+        assertEquals(base.plusDays(5), slots.get(1).getEnd());
+        assertEquals(base.plusDays(6), slots.get(2).getStart());
+        assertEquals(base.plusDays(10), slots.get(2).getEnd());
+    }
+
+    @Test
+    void freeSlotsStartInsideBookingTest() {
+        calendar.reserve(1L, base, base.plusDays(2));
+
+        List<FreeSlotDto> slots = calendar.freeSlots(1L, base.plusDays(1), base.plusDays(3));
+
+        assertEquals(1, slots.size());
+        assertEquals(base.plusDays(2), slots.get(0).getStart());
+    }
+
+    @Test
+    void scheduleLoadedFromBookingsTest() {
+        Booking waiting = new Booking(1L, base, base.plusDays(1), BookingStatus.WAITING, 1L, 2L, 3L, null);
+        when(bookingDao.findAllByItemIdAndStatusInAndEndAfter(eq(1L), eq(BookingCalendar.BLOCKING), any()))
+                .thenReturn(List.of(waiting));
+
+        assertFalse(calendar.isFree(1L, base.plusHours(1), base.plusHours(2)));
+        assertTrue(calendar.isFree(1L, base.plusDays(1), base.plusDays(2)));
+        verify(bookingDao, times(1)).findAllByItemIdAndStatusInAndEndAfter(eq(1L), any(), any());
+    }
+
+    @Test
+    void releaseReloadsScheduleTest() {
+        calendar.reserve(1L, base, base.plusDays(1));
+
+        calendar.release(1L);
+
+        assertTrue(calendar.isFree(1L, base, base.plusDays(1)));
+        verify(bookingDao, times(2)).findAllByItemIdAndStatusInAndEndAfter(eq(1L), any(), any());
+    }
+
+    @Test
+    void lockRequiresTransactionTest() {
+        assertThrows(IllegalStateException.class, () -> calendar.lock(1L));
+    }
+
+    @Test
+    void lockHeldUntilTransactionCompletesTest() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            calendar.lock(1L);
+            CompletableFuture<Void> sameItem = CompletableFuture.runAsync(() -> lockAndComplete(1L));
+
+            assertThrows(TimeoutException.class, () -> sameItem.get(200, TimeUnit.MILLISECONDS));
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+            sameItem.get(5, TimeUnit.SECONDS);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lockOnOtherItemDoesNotWaitTest() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            calendar.lock(1L);
+
+            CompletableFuture.runAsync(() -> lockAndComplete(2L)).get(5, TimeUnit.SECONDS);
+        } finally {
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lockSerializesSameItemTransactionsTest() throws Exception {
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        List<CompletableFuture<Void>> transactions = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            transactions.add(CompletableFuture.runAsync(() -> {
+                TransactionSynchronizationManager.initSynchronization();
+                try {
+                    start.await();
+                    calendar.lock(1L);
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    Thread.sleep(10);
+                    active.decrementAndGet();
+                    complete(TransactionSynchronization.STATUS_COMMITTED);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    TransactionSynchronizationManager.clearSynchronization();
+                }
+            }));
+        }
+
+        start.countDown();
+        CompletableFuture.allOf(transactions.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, maxActive.get());
+    }
+
+    @Test
+    void concurrentOverlappingReservationsTest() throws Exception {
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<CompletableFuture<Void>> transactions = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            LocalDateTime from = base.plusHours(i);
+            transactions.add(CompletableFuture.runAsync(() -> {
+                TransactionSynchronizationManager.initSynchronization();
+                try {
+                    start.await();
+                    calendar.lock(1L);
+                    calendar.reserve(1L, from, from.plusDays(1));
+                    reserved.incrementAndGet();
+                    complete(TransactionSynchronization.STATUS_COMMITTED);
+                } catch (ConflictException e) {
+                    conflicts.incrementAndGet();
+                    complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    TransactionSynchronizationManager.clearSynchronization();
+                }
+            }));
+        }
+
+        start.countDown();
+        CompletableFuture.allOf(transactions.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, reserved.get());
+        assertEquals(threads - 1, conflicts.get());
+    }
+
+    @Test
+    void lockReleasedAfterScheduleInvalidatedTest() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            calendar.lock(1L);
+            calendar.reserve(1L, base, base.plusDays(1));
+            CompletableFuture<Void> sameItem = CompletableFuture.runAsync(() -> lockAndComplete(1L));
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+            for (TransactionSynchronization synchronization : synchronizations.subList(0, synchronizations.size() - 1)) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+
+            assertTrue(calendar.isFree(1L, base, base.plusDays(1)));
+            assertThrows(TimeoutException.class, () -> sameItem.get(200, TimeUnit.MILLISECONDS));
+
+            synchronizations.get(synchronizations.size() - 1)
+                    .afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            sameItem.get(5, TimeUnit.SECONDS);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private void lockAndComplete(Long itemId) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            calendar.lock(itemId);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
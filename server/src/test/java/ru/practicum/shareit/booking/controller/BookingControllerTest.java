@@ -23,6 +23,7 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utility.KeysetPage;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -30,6 +31,7 @@ import java.util.Collections;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -54,7 +56,7 @@ class BookingControllerTest {
         item = new Item(1L, "item", "description",
                 true, owner.getId(), null);
         booking = new Booking(1L, LocalDateTime.now().plusMinutes(1), LocalDateTime.now().plusDays(1),
-                BookingStatus.WAITING, item.getId(), booker.getId());
+                BookingStatus.WAITING, item.getId(), booker.getId(), owner.getId(), null);
     }
 
     @Test
@@ -124,6 +126,24 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].status").value("WAITING"));
     }
 
+    @Test
+    void bookingsByBookerWithCursorTest() throws Exception {
+        UserDto bookerDto = UserMapper.toUserDto(booker);
+        ItemDto itemDto = ItemMapper.toItemDto(item);
+        FullBookingDto fullDto = BookingMapper.toFullBookingDto(booking, bookerDto, itemDto);
+        when(bookingService.bookingsByBookerAfter(2L, "ALL", "", 1))
+                .thenReturn(new KeysetPage<>(Collections.singletonList(fullDto), "next"));
+
+        mockMvc.perform(get("/bookings/")
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .header("X-Sharer-User-Id", 2L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(KeysetPage.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$[0].id").value(fullDto.getId()));
+    }
+
     @Test
     void bookingsByOwnerTest() throws Exception {
         UserDto bookerDto = UserMapper.toUserDto(booker);
@@ -5,15 +5,22 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dao.ItemDao;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dao.UserDao;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utility.KeysetCursor;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -38,7 +45,7 @@ class BookingDaoTest {
         item = itemDao.save(new Item(1L, "item", "description",
                 true, owner.getId(), null));
         booking = bookingDao.save(new Booking(1L, LocalDateTime.now().plusMinutes(10),
-                LocalDateTime.now().plusDays(1), BookingStatus.APPROVED, item.getId(), booker.getId()));
+                LocalDateTime.now().plusDays(1), BookingStatus.APPROVED, item.getId(), booker.getId(), owner.getId(), null));
     }
 
     @AfterEach
@@ -49,9 +56,8 @@ class BookingDaoTest {
     }
 
     @Test
-    void findBookingsByBookerIdOrderByStartDescTest() {
-        var bookings = bookingDao.findBookingsByBookerIdOrderByStartDesc(booker.getId(),
-                Pageable.unpaged());
+    void findBookingsByBookerTest() {
+        var bookings = byBooker("ALL");
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertSame(booking, bookings.get(0));
@@ -61,7 +67,7 @@ class BookingDaoTest {
     void findCurrentBookingsByBookerTest() {
         booking.setStart(LocalDateTime.now().minusMinutes(1));
         bookingDao.save(booking);
-        var bookings = bookingDao.findCurrentBookingsByBooker(booker.getId(), Pageable.unpaged());
+        var bookings = byBooker("CURRENT");
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertSame(booking, bookings.get(0));
@@ -69,7 +75,7 @@ class BookingDaoTest {
 
     @Test
     void findFutureBookingsByBookerTest() {
-        var bookings = bookingDao.findFutureBookingsByBooker(booker.getId(), Pageable.unpaged());
+        var bookings = byBooker("FUTURE");
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertSame(booking, bookings.get(0));
@@ -78,7 +84,7 @@ class BookingDaoTest {
     @Test
     void findWaitingBookingsByBookerTest() {
         booking.setStatus(BookingStatus.WAITING);
-        var bookings = bookingDao.findWaitingBookingsByBooker(booker.getId(), Pageable.unpaged());
+        var bookings = byBooker("WAITING");
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertSame(booking, bookings.get(0));
@@ -87,7 +93,7 @@ class BookingDaoTest {
     @Test
     void findRejectedBookingsByBookerTest() {
         booking.setStatus(BookingStatus.REJECTED);
-        var bookings = bookingDao.findRejectedBookingsByBooker(booker.getId(), Pageable.unpaged());
+        var bookings = byBooker("REJECTED");
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertSame(booking, bookings.get(0));
@@ -95,7 +101,7 @@ class BookingDaoTest {
 
     @Test
     void findBookingsByOwnerTest() {
-        var bookings = bookingDao.findBookingsByOwner(owner.getId(), Pageable.unpaged());
+        var bookings = byOwner("ALL");
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertSame(booking, bookings.get(0));
@@ -105,7 +111,7 @@ class BookingDaoTest {
     @Test
     void findCurrentBookingsByOwnerTest() {
         booking.setStart(LocalDateTime.now().minusHours(1));
-        var bookings = bookingDao.findCurrentBookingsByOwner(owner.getId(), Pageable.unpaged());
+        var bookings = byOwner("CURRENT");
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertSame(booking, bookings.get(0));
@@ -113,7 +119,7 @@ class BookingDaoTest {
 
     @Test
     void findFutureBookingsByOwnerTest() {
-        var bookings = bookingDao.findFutureBookingsByOwner(owner.getId(), Pageable.unpaged());
+        var bookings = byOwner("FUTURE");
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertSame(booking, bookings.get(0));
@@ -122,7 +128,7 @@ class BookingDaoTest {
     @Test
     void findWaitingBookingsByOwnerTest() {
         booking.setStatus(BookingStatus.WAITING);
-        var bookings = bookingDao.findWaitingBookingsByOwner(owner.getId(), Pageable.unpaged());
+        var bookings = byOwner("WAITING");
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertSame(booking, bookings.get(0));
@@ -131,7 +137,7 @@ class BookingDaoTest {
     @Test
     void findRejectedBookingsByOwnerTest() {
         booking.setStatus(BookingStatus.REJECTED);
-        var bookings = bookingDao.findRejectedBookingsByOwner(owner.getId(), Pageable.unpaged());
+        var bookings = byOwner("REJECTED");
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertSame(booking, bookings.get(0));
@@ -142,7 +148,7 @@ class BookingDaoTest {
         booking.setStart(LocalDateTime.now().minusDays(3));
         booking.setEnd(LocalDateTime.now().minusDays(1));
         bookingDao.save(booking);
-        var bookings = bookingDao.findPastBookingsByBooker(booker.getId(), Pageable.unpaged());
+        var bookings = byBooker("PAST");
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertSame(booking, bookings.get(0));
@@ -153,7 +159,7 @@ class BookingDaoTest {
         booking.setStart(LocalDateTime.now().minusDays(3));
         booking.setEnd(LocalDateTime.now().minusDays(1));
         bookingDao.save(booking);
-        var bookings = bookingDao.findPastBookingsByOwner(owner.getId(), Pageable.unpaged());
+        var bookings = byOwner("PAST");
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertSame(booking, bookings.get(0));
@@ -161,17 +167,81 @@ class BookingDaoTest {
 
     @Test
     void findLastBookingByItemIdTest() {
-        var bookings = bookingDao.findLastBookingByItemId(owner.getId(), item.getId());
-        assertNotNull(bookings);
-        assertEquals(1, bookings.size());
-        assertSame(booking, bookings.get(0));
+        Booking past = bookingDao.save(new Booking(null, LocalDateTime.now().minusDays(3),
+                LocalDateTime.now().minusDays(2), BookingStatus.APPROVED, item.getId(), booker.getId(), owner.getId(), null));
+        bookingDao.save(new Booking(null, LocalDateTime.now().minusDays(10),
+                LocalDateTime.now().minusDays(9), BookingStatus.APPROVED, item.getId(), booker.getId(), owner.getId(), null));
+        var last = bookingDao.findFirstByItemIdAndStartBeforeOrderByStartDesc(item.getId(), LocalDateTime.now());
+        assertTrue(last.isPresent());
+        assertSame(past, last.get());
     }
 
     @Test
-    void findNextBookingsByItemIdAndUserIdTest() {
-        var bookings = bookingDao.findNextBookingsByItemIdAndUserId(owner.getId(), item.getId());
-        assertNotNull(bookings);
-        assertEquals(1, bookings.size());
-        assertSame(booking, bookings.get(0));
+    void findNextBookingByItemIdTest() {
+        bookingDao.save(new Booking(null, LocalDateTime.now().plusDays(2),
+                LocalDateTime.now().plusDays(3), BookingStatus.WAITING, item.getId(), booker.getId(), owner.getId(), null));
+        var next = bookingDao.findFirstByItemIdAndStartAfterOrderByStartAsc(item.getId(), LocalDateTime.now());
+        assertTrue(next.isPresent());
+        assertSame(booking, next.get());
+        assertTrue(bookingDao.findFirstByItemIdAndStartBeforeOrderByStartDesc(item.getId(),
+                LocalDateTime.now()).isEmpty());
+    }
+
+    @Test
+    void findLastAndNextBookingsByItemIdsTest() {
+        Booking past = bookingDao.save(new Booking(null, LocalDateTime.now().minusDays(3),
+                LocalDateTime.now().minusDays(2), BookingStatus.APPROVED, item.getId(), booker.getId(), owner.getId(), null));
+        bookingDao.save(new Booking(null, LocalDateTime.now().plusDays(2),
+                LocalDateTime.now().plusDays(3), BookingStatus.WAITING, item.getId(), booker.getId(), owner.getId(), null));
+        Item otherItem = itemDao.save(new Item(null, "other", "description",
+                true, owner.getId(), null));
+
+        var last = bookingDao.findLastBookingsByItemIds(List.of(item.getId(), otherItem.getId()),
+                LocalDateTime.now());
+        var next = bookingDao.findNextBookingsByItemIds(List.of(item.getId(), otherItem.getId()),
+                LocalDateTime.now());
+
+        assertEquals(1, last.size());
+        assertEquals(past.getId(), last.get(0).getId());
+        assertEquals(1, next.size());
+        assertEquals(booking.getId(), next.get(0).getId());
+    }
+
+    @Test
+    void findListKeysetPagesTest() {
+        booking.setStart(booking.getStart().truncatedTo(ChronoUnit.MICROS));
+        bookingDao.save(booking);
+        Booking second = bookingDao.save(new Booking(null, booking.getStart(),
+                LocalDateTime.now().plusDays(2), BookingStatus.WAITING, item.getId(), booker.getId(), owner.getId(), null));
+        Booking third = bookingDao.save(new Booking(null, LocalDateTime.now().plusMinutes(5).truncatedTo(ChronoUnit.MICROS),
+                LocalDateTime.now().plusDays(2), BookingStatus.WAITING, item.getId(), booker.getId(), owner.getId(), null));
+        Sort sort = Sort.by(Sort.Direction.DESC, "start", "id");
+        Specification<Booking> byOwner = Specification.where(BookingSpecifications.byOwner(owner.getId()))
+                .and(BookingSpecifications.inState("FUTURE", LocalDateTime.now()));
+
+        var firstPage = bookingDao.findList(byOwner, PageRequest.of(0, 2, sort));
+        assertEquals(List.of(second.getId(), booking.getId()),
+                List.of(firstPage.get(0).getId(), firstPage.get(1).getId()));
+
+        KeysetCursor cursor = KeysetCursor.of(firstPage.get(1).getStart(), firstPage.get(1).getId());
+        var nextPage = bookingDao.findList(byOwner.and(BookingSpecifications.startsBefore(cursor)),
+                PageRequest.of(0, 2, sort));
+        assertEquals(1, nextPage.size());
+        assertEquals(third.getId(), nextPage.get(0).getId());
+    }
+
+    @Test
+    void findByUnknownStateTest() {
+        assertThrows(ValidationException.class, () -> byBooker("UNKNOWN"));
+    }
+
+    private List<Booking> byBooker(String state) {
+        return bookingDao.findList(Specification.where(BookingSpecifications.byBooker(booker.getId()))
+                .and(BookingSpecifications.inState(state, LocalDateTime.now())), Pageable.unpaged());
+    }
+
+    private List<Booking> byOwner(String state) {
+        return bookingDao.findList(Specification.where(BookingSpecifications.byOwner(owner.getId()))
+                .and(BookingSpecifications.inState(state, LocalDateTime.now())), Pageable.unpaged());
     }
-}
\ No newline at end of file
+}
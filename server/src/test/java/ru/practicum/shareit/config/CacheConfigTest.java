@@ -0,0 +1,86 @@
+package ru.practicum.shareit.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dao.ItemDao;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dao.UserDao;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = "shareit.search.engine=database")
+class CacheConfigTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private CacheManager cacheManager;
+    @MockBean
+    private UserDao userDao;
+    @MockBean
+    private ItemDao itemDao;
+
+    private User user;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.USERS).clear();
+        cacheManager.getCache(CacheConfig.ITEMS).clear();
+        user = new User(1L, "user1", "user1@mail.ru");
+        item = new Item(1L, "item", "description", true, user.getId(), null);
+        when(userDao.findById(user.getId())).thenReturn(Optional.of(user));
+        when(itemDao.findById(item.getId())).thenReturn(Optional.of(item));
+        when(itemDao.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void getUserCachedUntilUpdateTest() {
+        userService.getUser(user.getId());
+        userService.getUser(user.getId());
+        verify(userDao, times(1)).findById(user.getId());
+
+        userService.update(user.getId(), UserDto.builder().name("updated").build());
+        userService.getUser(user.getId());
+        verify(userDao, times(3)).findById(user.getId());
+    }
+
+    @Test
+    void userDeleteEvictsItemsTest() {
+        itemService.getSimpleItem(item.getId());
+        userService.getUser(user.getId());
+
+        userService.delete(user.getId());
+        itemService.getSimpleItem(item.getId());
+        userService.getUser(user.getId());
+
+        verify(itemDao, times(2)).findById(item.getId());
+        verify(userDao, times(2)).findById(user.getId());
+    }
+
+    @Test
+    void getSimpleItemCachedUntilUpdateTest() {
+        itemService.getSimpleItem(item.getId());
+        assertEquals("item", itemService.getSimpleItem(item.getId()).getName());
+        verify(itemDao, times(1)).findById(item.getId());
+
+        itemService.update(user.getId(), item.getId(), ItemDto.builder().name("updated").build());
+        item.setName("updated");
+        assertEquals("updated", itemService.getSimpleItem(item.getId()).getName());
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.comment.dao.CommentDao;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.item.dao.ItemDao;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dao.UserDao;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(EntityCacheConfig.class)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntityCacheConfigTest {
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private ItemDao itemDao;
+    @Autowired
+    private CommentDao commentDao;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        owner = userDao.save(User.builder().name("owner").email("owner@mail.ru").build());
+        item = itemDao.save(Item.builder().name("item").description("description")
+                .available(true).owner(owner.getId()).build());
+        statistics.clear();
+    }
+
+    @AfterEach
+    void afterEach() {
+        commentDao.deleteAll();
+        itemDao.deleteAll();
+        userDao.deleteAll();
+    }
+
+    @Test
+    void findByIdHitsSecondLevelCacheTest() {
+        assertEquals("item", itemDao.findById(item.getId()).orElseThrow().getName());
+        assertEquals("item", itemDao.findById(item.getId()).orElseThrow().getName());
+
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updateRefreshesCachedEntityTest() {
+        itemDao.save(item.toBuilder().name("updated").build());
+
+        assertEquals("updated", itemDao.findById(item.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void commentsQueryIsCachedUntilCommentsChangeTest() {
+        User author = userDao.save(User.builder().name("author").email("author@mail.ru").build());
+        commentDao.save(Comment.builder().text("text").item(item).author(author).created(LocalDateTime.now()).build());
+        statistics.clear();
+
+        assertEquals(1, commentDao.findAllByItemId(item.getId()).size());
+        assertEquals(1, commentDao.findAllByItemId(item.getId()).size());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        commentDao.save(Comment.builder().text("other").item(item).author(owner).created(LocalDateTime.now()).build());
+
+        assertEquals(2, commentDao.findAllByItemId(item.getId()).size());
+    }
+
+    @Test
+    void evictOwnedEntitiesDropsCascadedItemsTest() {
+        assertTrue(itemDao.findById(item.getId()).isPresent());
+
+        userDao.deleteById(owner.getId());
+        userDao.evictOwnedEntities();
+
+        assertTrue(itemDao.findById(item.getId()).isEmpty());
+    }
+}
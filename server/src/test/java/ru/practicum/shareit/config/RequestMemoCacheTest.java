@@ -0,0 +1,62 @@
+package ru.practicum.shareit.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RequestMemoCacheTest {
+
+    private ConcurrentMapCache shared;
+    private RequestMemoCache cache;
+
+    @BeforeEach
+    void setUp() {
+        shared = new ConcurrentMapCache(CacheConfig.USERS);
+        cache = new RequestMemoCache(shared);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void valueStableWithinRequestTest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        shared.put(1L, "first");
+
+        assertEquals("first", cache.get(1L).get());
+        shared.put(1L, "second");
+        assertEquals("first", cache.get(1L).get());
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertEquals("second", cache.get(1L).get());
+    }
+
+    @Test
+    void evictVisibleWithinRequestTest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        cache.put(1L, "first");
+
+        cache.evict(1L);
+
+        assertNull(cache.get(1L));
+        assertNull(shared.get(1L));
+    }
+
+    @Test
+    void passThroughOutsideRequestTest() {
+        shared.put(1L, "first");
+        assertEquals("first", cache.get(1L).get());
+
+        shared.put(1L, "second");
+        assertEquals("second", cache.get(1L).get());
+    }
+}
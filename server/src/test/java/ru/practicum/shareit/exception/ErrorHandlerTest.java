@@ -1,6 +1,8 @@
 package ru.practicum.shareit.exception;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.booking.model.Booking;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -40,4 +42,12 @@ class ErrorHandlerTest {
         assertNotNull(response);
         assertEquals(response.getDescription(), exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void handleOptimisticLockingFailure() {
+        ObjectOptimisticLockingFailureException exception = new ObjectOptimisticLockingFailureException(Booking.class, 1L);
+        ExceptionResponse response = exceptionHandler.handleOptimisticLockingFailure(exception);
+        assertNotNull(response);
+        assertEquals("Внутренний конфликт", response.getDescription());
+    }
+}
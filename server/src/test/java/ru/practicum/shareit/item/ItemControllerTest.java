@@ -11,7 +11,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.FreeSlotDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.comment.CommentMapper;
 import ru.practicum.shareit.comment.CommentService;
@@ -43,6 +45,8 @@ class ItemControllerTest {
     private ItemService itemService;
     @MockBean
     private CommentService commentService;
+    @MockBean
+    private BookingService bookingService;
     ObjectMapper mapper = new ObjectMapper();
     private User owner;
     private User booker;
@@ -59,7 +63,7 @@ class ItemControllerTest {
                 true, owner.getId(), null);
         comment = new Comment(1L, "Comment1", item, booker, LocalDateTime.now());
         booking = new Booking(1L, LocalDateTime.now().minusDays(5),
-                LocalDateTime.now().minusDays(3), BookingStatus.APPROVED, 1L, booker.getId());
+                LocalDateTime.now().minusDays(3), BookingStatus.APPROVED, 1L, booker.getId(), owner.getId(), null);
     }
 
     @Test
@@ -112,6 +116,19 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.name").value(itemDto.getName()));
     }
 
+    @Test
+    void getAvailabilityTest() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 12, 0);
+        FreeSlotDto slot = new FreeSlotDto(from, from.plusDays(1));
+        when(bookingService.getAvailability(owner.getId(), item.getId(), from, null))
+                .thenReturn(Collections.singletonList(slot));
+        mockMvc.perform(get("/items/1/availability")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .param("from", "2030-01-01T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].end").value("2030-01-02T12:00:00"));
+    }
+
     @Test
     void getUserItemsTest() throws Exception {
         ItemInfoDto itemDto = ItemMapper.toItemInfoDto(item, null,
@@ -16,14 +16,20 @@ import ru.practicum.shareit.item.dao.ItemDao;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.DatabaseItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.dao.ItemRequestDao;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.dao.UserDao;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utility.BatchResult;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,6 +42,7 @@ class ItemServiceTest {
     private CommentDao commentDao;
 
     private BookingDao bookingDao;
+    private ItemRequestDao requestDao;
 
     @BeforeEach
     void beforeEach() {
@@ -43,8 +50,10 @@ class ItemServiceTest {
         userDao = mock(UserDao.class);
         commentDao = mock(CommentDao.class);
         bookingDao = mock(BookingDao.class);
-        UserService userService = new UserService(userDao);
-        itemService = new ItemService(itemDao, bookingDao, commentDao, userService);
+        requestDao = mock(ItemRequestDao.class);
+        UserService userService = new UserService(userDao, mock(ItemSearchEngine.class));
+        itemService = new ItemService(itemDao, bookingDao, commentDao, userService,
+                new DatabaseItemSearchEngine(itemDao), requestDao);
         commentService = new CommentService(commentDao, userService, itemService, bookingDao);
     }
 
@@ -60,6 +69,23 @@ class ItemServiceTest {
         verify(itemDao, times(1)).findById(itemId);
     }
 
+    @Test
+    void getItemWithBookingsForOwnerTest() {
+        Item item = item();
+        when(itemDao.findById(item.getId()))
+                .thenReturn(Optional.of(item));
+        when(bookingDao.findFirstByItemIdAndStartAfterOrderByStartAsc(anyLong(), any()))
+                .thenReturn(Optional.of(booking()));
+
+        ItemInfoDto ownerView = itemService.getItem(item.getOwner(), item.getId());
+        ItemInfoDto bookerView = itemService.getItem(booker().getId(), item.getId());
+
+        assertNotNull(ownerView.getNextBooking());
+        assertNull(ownerView.getLastBooking());
+        assertNull(bookerView.getNextBooking());
+        verify(bookingDao, times(1)).findFirstByItemIdAndStartAfterOrderByStartAsc(anyLong(), any());
+    }
+
     @Test
     void getItemByWrongIdTest() {
         Item item = item();
@@ -78,6 +104,7 @@ class ItemServiceTest {
                 .thenReturn(item());
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(user()));
+        when(userDao.existsById(any())).thenReturn(true);
 
         ItemDto itemDto = itemService.create(item().getOwner(), ItemMapper.toItemDto(item()));
 
@@ -88,6 +115,35 @@ class ItemServiceTest {
         verify(itemDao, times(1)).save(any());
     }
 
+    @Test
+    void createItemsBatchTest() {
+        when(userDao.existsById(1L)).thenReturn(true);
+        when(requestDao.findAllById(Set.of(2L, 5L)))
+                .thenReturn(List.of(new ItemRequest(2L, "request", 3L, LocalDateTime.now())));
+        ItemDto valid = ItemMapper.toItemDto(item());
+        ItemDto withoutName = ItemMapper.toItemDto(item()).toBuilder().name(" ").build();
+        ItemDto unknownRequest = ItemMapper.toItemDto(item()).toBuilder().requestId(5L).build();
+
+        List<BatchResult<ItemDto>> results = itemService.createAll(1L, List.of(valid, withoutName, unknownRequest));
+
+        assertEquals(3, results.size());
+        assertEquals(BatchResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(1L, results.get(0).getResult().getOwner());
+        assertEquals(BatchResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals("Нужно указать name", results.get(1).getError());
+        assertEquals(BatchResult.Status.REJECTED, results.get(2).getStatus());
+        assertEquals(2, results.get(2).getIndex());
+        verify(itemDao, times(1)).saveAll(argThat(items -> ((List<Item>) items).size() == 1));
+        verify(itemDao, never()).save(any());
+    }
+
+    @Test
+    void createItemsBatchWithoutUserTest() {
+        assertThrows(WrongParameterException.class,
+                () -> itemService.createAll(1L, List.of(ItemMapper.toItemDto(item()))));
+        verify(itemDao, never()).saveAll(any());
+    }
+
     @Test
     void updateItemTest() {
         when(itemDao.save(any()))
@@ -96,6 +152,7 @@ class ItemServiceTest {
                 .thenReturn(Optional.of(item()));
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(user()));
+        when(userDao.existsById(any())).thenReturn(true);
 
         Item item = item();
 
@@ -114,19 +171,25 @@ class ItemServiceTest {
                 .thenReturn(Optional.of(item()));
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(user()));
+        when(userDao.existsById(any())).thenReturn(true);
         when(itemDao.findItemsByOwner(any(), any()))
                 .thenReturn(Collections.singletonList(item()));
-        when(commentDao.findAllByItemId(anyLong()))
+        when(commentDao.findAllByItemIdIn(any()))
                 .thenReturn(Collections.singletonList(comment()));
-        when(bookingDao.findLastBookingByItemId(anyLong(), anyLong()))
+        when(bookingDao.findLastBookingsByItemIds(any(), any()))
                 .thenReturn(Collections.singletonList(booking()));
-        when(bookingDao.findNextBookingsByItemIdAndUserId(anyLong(), anyLong()))
+        when(bookingDao.findNextBookingsByItemIds(any(), any()))
                 .thenReturn(Collections.singletonList(booking()));
 
         List<ItemInfoDto> dtos = itemService.getUserItems(item().getOwner(), 0, 10);
 
         assertNotNull(dtos);
         assertEquals("item1", dtos.get(0).getName());
+        assertEquals(1, dtos.get(0).getComments().size());
+        assertNotNull(dtos.get(0).getLastBooking());
+        assertNotNull(dtos.get(0).getNextBooking());
+        verify(itemDao, never()).findById(any());
+        verify(commentDao, never()).findAllByItemId(anyLong());
     }
 
     @Test
@@ -137,6 +200,7 @@ class ItemServiceTest {
                 .thenReturn(Optional.of(item()));
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(user()));
+        when(userDao.existsById(any())).thenReturn(true);
         when(itemDao.findItemsByText(any(), any())).thenReturn(Collections.singletonList(item()));
 
         List<ItemDto> dtos = itemService.search("description1", 0, 10);
@@ -187,6 +251,7 @@ class ItemServiceTest {
                 .thenReturn(item());
         when(userDao.findById(anyLong()))
                 .thenReturn(Optional.of(user()));
+        when(userDao.existsById(anyLong())).thenReturn(true);
 
         assertThrows(ValidationException.class,
                 () -> itemService.create(1L, itemDto));
@@ -201,6 +266,7 @@ class ItemServiceTest {
                 .thenReturn(item());
         when(userDao.findById(anyLong()))
                 .thenReturn(Optional.of(user()));
+        when(userDao.existsById(anyLong())).thenReturn(true);
 
         assertThrows(ValidationException.class,
                 () -> itemService.create(1L, itemDto));
@@ -215,6 +281,7 @@ class ItemServiceTest {
                 .thenReturn(item());
         when(userDao.findById(anyLong()))
                 .thenReturn(Optional.of(user()));
+        when(userDao.existsById(anyLong())).thenReturn(true);
 
         assertThrows(ValidationException.class,
                 () -> itemService.create(1L, itemDto));
@@ -227,6 +294,7 @@ class ItemServiceTest {
                 .thenReturn(Optional.of(item()));
         when(userDao.findById(anyLong()))
                 .thenReturn(Optional.of(user()));
+        when(userDao.existsById(anyLong())).thenReturn(true);
         when(commentDao.save(any(Comment.class)))
                 .thenReturn(comment());
         when(bookingDao.findCompletedBookings(anyLong(), anyLong(), any(BookingStatus.class)))
@@ -241,6 +309,7 @@ class ItemServiceTest {
         CommentDto commentDto = CommentMapper.toCommentDto(comment());
         when(userDao.findById(anyLong()))
                 .thenReturn(Optional.of(user()));
+        when(userDao.existsById(anyLong())).thenReturn(true);
         when(commentDao.save(any(Comment.class)))
                 .thenReturn(comment());
         assertThrows(ValidationException.class,
@@ -253,6 +322,7 @@ class ItemServiceTest {
         commentDto.setText("");
         when(userDao.findById(anyLong()))
                 .thenReturn(Optional.of(user()));
+        when(userDao.existsById(anyLong())).thenReturn(true);
         when(commentDao.save(any(Comment.class)))
                 .thenReturn(comment());
         assertThrows(ValidationException.class,
@@ -285,6 +355,6 @@ class ItemServiceTest {
 
     private Booking booking() {
         return new Booking(1L, LocalDateTime.now().plusMinutes(1), LocalDateTime.now().plusDays(1),
-                BookingStatus.APPROVED, item().getId(), booker().getId());
+                BookingStatus.APPROVED, item().getId(), booker().getId(), user().getId(), null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.item.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dao.UserDao;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Схема и поиск на настоящем PostgreSQL: в профилях test и ci база H2, а поиск идет через память.
+ */
+@DataJpaTest
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ItemDaoPostgresTest {
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driverClassName", POSTGRES::getDriverClassName);
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.sql.init.platform", () -> "postgresql");
+    }
+
+    @Autowired
+    private ItemDao itemDao;
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userDao.save(User.builder().name("owner").email("owner@mail.ru").build());
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemDao.deleteAll();
+        userDao.deleteAll();
+    }
+
+    @Test
+    void schemaCreatesTrigramIndexesTest() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE tablename = 'items'", String.class);
+
+        assertTrue(indexes.contains("items_name_trgm_index"));
+        assertTrue(indexes.contains("items_description_trgm_index"));
+    }
+
+    @Test
+    void findItemsByTextRanksNameMatchesFirstTest() {
+        Item inDescription = itemDao.save(item("Hammer", "Stronger than any drill"));
+        Item inName = itemDao.save(item("Drill", "Cordless"));
+        itemDao.save(item("Impact drill", "Under repair").toBuilder().available(false).build());
+        itemDao.save(item("Screwdriver", "Phillips"));
+
+        List<Long> found = itemDao.findItemsByText("DRILL", PageRequest.of(0, 10)).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(inName.getId(), inDescription.getId()), found);
+    }
+
+    @Test
+    void findItemsByTextPagesTest() {
+        for (int i = 0; i < 3; i++) {
+            itemDao.save(item("Drill " + i, "Drill"));
+        }
+
+        assertEquals(2, itemDao.findItemsByText("DRILL", PageRequest.of(0, 2)).size());
+        assertEquals(1, itemDao.findItemsByText("DRILL", PageRequest.of(1, 2)).size());
+    }
+
+    private Item item(String name, String description) {
+        return Item.builder().name(name).description(description).available(true).owner(owner.getId()).build();
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dao.ItemDao;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.utility.FromSizeRequest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryItemSearchEngineTest {
+
+    private InMemoryItemSearchEngine searchEngine;
+
+    @BeforeEach
+    void setUp() {
+        ItemDao itemDao = mock(ItemDao.class);
+        when(itemDao.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(
+                new Item(1L, "Отвертка", "Аккумуляторная дрель-отвертка", true, 1L, null),
+                new Item(2L, "Дрель", "Простая дрель", true, 1L, null),
+                new Item(3L, "Дрель ударная", "Занята", false, 1L, null))));
+        searchEngine = new InMemoryItemSearchEngine(itemDao);
+        searchEngine.rebuild();
+    }
+
+    @Test
+    void searchOrdersNameMatchesFirstAndSkipsUnavailableTest() {
+        List<Long> ids = ids(searchEngine.search("дРелЬ", Pageable.unpaged()));
+        assertEquals(List.of(2L, 1L), ids);
+    }
+
+    @Test
+    void searchShortQueryTest() {
+        assertEquals(List.of(2L, 1L), ids(searchEngine.search("др", Pageable.unpaged())));
+    }
+
+    @Test
+    void searchPrefixAtEndOfTextTest() {
+        assertEquals(List.of(1L), ids(searchEngine.search("ка", Pageable.unpaged())));
+        assertEquals(List.of(1L, 2L), ids(searchEngine.search("ая", Pageable.unpaged())));
+    }
+
+    @Test
+    void searchUnknownGramTest() {
+        assertTrue(searchEngine.search("пила", Pageable.unpaged()).isEmpty());
+    }
+
+    @Test
+    void removeDropsItemAndReusesOrdinalTest() {
+        searchEngine.remove(2L);
+
+        assertEquals(List.of(1L), ids(searchEngine.search("дрель", Pageable.unpaged())));
+        assertTrue(searchEngine.search("простая", Pageable.unpaged()).isEmpty());
+
+        searchEngine.index(new Item(4L, "Пила", "Ручная", true, 1L, null));
+        searchEngine.index(new Item(5L, "Дрель", "Новая", true, 1L, null));
+
+        assertEquals(List.of(4L), ids(searchEngine.search("пила", Pageable.unpaged())));
+        assertEquals(List.of(5L, 1L), ids(searchEngine.search("дрель", Pageable.unpaged())));
+    }
+
+    @Test
+    void removeUnknownItemTest() {
+        searchEngine.remove(42L);
+
+        assertEquals(List.of(2L, 1L), ids(searchEngine.search("дрель", Pageable.unpaged())));
+    }
+
+    @Test
+    void indexAvailabilityChangeTest() {
+        searchEngine.index(new Item(3L, "Дрель ударная", "Свободна", true, 1L, null));
+        assertEquals(List.of(2L, 3L, 1L), ids(searchEngine.search("дрель", Pageable.unpaged())));
+    }
+
+    @Test
+    void searchPageTest() {
+        assertEquals(List.of(1L), ids(searchEngine.search("дрель", FromSizeRequest.of(1, 1))));
+    }
+
+    @Test
+    void indexUpdatesPostingsTest() {
+        searchEngine.index(new Item(2L, "Молоток", "Тяжелый", true, 1L, null));
+        searchEngine.index(new Item(4L, "Перфоратор", "Почти дрель", true, 1L, null));
+
+        assertEquals(List.of(1L, 4L), ids(searchEngine.search("дрель", Pageable.unpaged())));
+        assertEquals(List.of(2L), ids(searchEngine.search("молот", Pageable.unpaged())));
+        assertTrue(searchEngine.search("простая", Pageable.unpaged()).isEmpty());
+    }
+
+    private List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
@@ -3,14 +3,12 @@ package ru.practicum.shareit.request;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.WrongParameterException;
 import ru.practicum.shareit.item.dao.ItemDao;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.dao.ItemRequestDao;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -42,7 +40,7 @@ class ItemRequestServiceTest {
         userDao = mock(UserDao.class);
         requestDao = mock(ItemRequestDao.class);
         itemDao = mock(ItemDao.class);
-        UserService userService = new UserService(userDao);
+        UserService userService = new UserService(userDao, mock(ItemSearchEngine.class));
         requestService = new ItemRequestService(requestDao, itemDao, userService);
     }
 
@@ -50,6 +48,7 @@ class ItemRequestServiceTest {
     void createItemRequestTest() {
         when(requestDao.save(any(ItemRequest.class))).thenReturn(request());
         when(userDao.findById(any())).thenReturn(Optional.of(user()));
+        when(userDao.existsById(any())).thenReturn(true);
         ItemRequestDto dto = requestService.create(2L,
                 ItemRequestMapper.toItemRequestDto(request()));
         assertNotNull(dto);
@@ -63,6 +62,7 @@ class ItemRequestServiceTest {
 
         when(requestDao.findById(any())).thenReturn(Optional.of(request()));
         when(userDao.findById(any())).thenReturn(Optional.of(user()));
+        when(userDao.existsById(any())).thenReturn(true);
 
         ItemRequestDtoWithItems dto = requestService.getItemRequestById(2L, 1L);
 
@@ -77,6 +77,7 @@ class ItemRequestServiceTest {
 
         when(requestDao.findById(10L)).thenThrow(new WrongParameterException("Неверный id"));
         when(userDao.findById(any())).thenReturn(Optional.of(user()));
+        when(userDao.existsById(any())).thenReturn(true);
 
         Throwable thrown = assertThrows(WrongParameterException.class,
                 () -> requestService.getItemRequestById(2L, 10L));
@@ -87,13 +88,20 @@ class ItemRequestServiceTest {
     void getUserItemRequestsTest() {
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(user()));
+        when(userDao.existsById(any())).thenReturn(true);
         when(requestDao.findAllByRequestorIdOrderByCreatedDesc(any()))
-                .thenReturn(List.of(request()));
+                .thenReturn(List.of(request(), new ItemRequest(2L, "itemRequest2", 2L, LocalDateTime.now())));
+        when(itemDao.findAllByRequestIdIn(List.of(1L, 2L)))
+                .thenReturn(Collections.singletonList(item()));
 
         List<ItemRequestDtoWithItems> dtos = requestService.getUserItemRequests(2L);
 
         assertNotNull(dtos);
         assertEquals("itemRequest1", dtos.get(0).getDescription());
+        assertEquals(1, dtos.get(0).getItems().size());
+        assertTrue(dtos.get(1).getItems().isEmpty());
+        verify(itemDao, times(1)).findAllByRequestIdIn(any());
+        verify(itemDao, never()).findAllByRequestId(any());
     }
 
     @Test
@@ -101,17 +109,19 @@ class ItemRequestServiceTest {
 
         when(userDao.findById(any()))
                 .thenReturn(Optional.of(user()));
-        when(itemDao.findAllByRequestId(any()))
+        when(userDao.existsById(any())).thenReturn(true);
+        when(itemDao.findAllByRequestIdIn(List.of(1L)))
                 .thenReturn(Collections.singletonList(item()));
         Pageable pageable = FromSizeRequest.of(0, 10);
-        when(requestDao.findAll(pageable))
-                .thenReturn(new PageImpl<>(Collections.singletonList(request()),
-                        PageRequest.of(0, 10, Sort.unsorted()), 0));
+        when(requestDao.findAllByRequestorIdNotOrderByCreatedDescIdDesc(1L, pageable))
+                .thenReturn(Collections.singletonList(request()));
 
         List<ItemRequestDtoWithItems> dtos = requestService.getAllItemRequests(1L, 0, 10);
 
         assertNotNull(dtos);
         assertEquals("itemRequest1", dtos.get(0).getDescription());
+        assertEquals(1, dtos.get(0).getItems().size());
+        verify(requestDao, never()).findAll(any(Pageable.class));
     }
 
     @Test
@@ -10,16 +10,24 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utility.BatchResult;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
@@ -86,17 +94,74 @@ class UserControllerTest {
     void getAllUsersTest() throws Exception {
         UserDto dto = UserMapper.toUserDto(user);
         userService.create(dto);
-        when(userService.getAll())
+        when(userService.getAll(0, 10))
                 .thenReturn(Collections.singletonList(dto));
 
-        mockMvc.perform(get("/users"))
+        mockMvc.perform(get("/users").param("from", "0"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name").value(dto.getName()));
     }
 
+    @Test
+    void createUsersBatchTest() throws Exception {
+        UserDto dto = UserMapper.toUserDto(user);
+        when(userService.createAll(any()))
+                .thenReturn(List.of(BatchResult.created(0, dto), BatchResult.rejected(1, "Email уже занят")));
+
+        mockMvc.perform(post("/users/batch")
+                        .content(mapper.writeValueAsString(List.of(dto, dto)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].result.id").value(dto.getId()))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].error").value("Email уже занят"));
+    }
+
+    @Test
+    void exportUsersAsJsonArrayTest() throws Exception {
+        exportUsers(UserMapper.toUserDto(user), new UserDto(2L, "user2", "user2@mail.ru"));
+
+        MvcResult result = mockMvc.perform(get("/users"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].email").value("user2@mail.ru"));
+    }
+
+    @Test
+    void exportUsersAsNdjsonTest() throws Exception {
+        exportUsers(UserMapper.toUserDto(user), new UserDto(2L, "user2", "user2@mail.ru"));
+
+        MvcResult result = mockMvc.perform(get("/users").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("user2", mapper.readValue(lines[1], UserDto.class).getName());
+    }
+
     @Test
     void deleteUserTest() throws Exception {
         mockMvc.perform(delete("/users/1"))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    private void exportUsers(UserDto... users) {
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            for (UserDto dto : users) {
+                consumer.accept(dto);
+            }
+            return null;
+        }).when(userService).exportAll(any());
+    }
+}
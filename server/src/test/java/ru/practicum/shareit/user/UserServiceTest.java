@@ -2,14 +2,21 @@ package ru.practicum.shareit.user;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.exception.WrongParameterException;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.user.dao.UserDao;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utility.BatchResult;
+import ru.practicum.shareit.utility.FromSizeRequest;
+import ru.practicum.shareit.utility.KeysetCursor;
+import ru.practicum.shareit.utility.KeysetPage;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -19,11 +26,13 @@ class UserServiceTest {
 
     private UserService userService;
     private UserDao userDao;
+    private ItemSearchEngine searchEngine;
 
     @BeforeEach
     void setUp() {
         userDao = mock(UserDao.class);
-        userService = new UserService(userDao);
+        searchEngine = mock(ItemSearchEngine.class);
+        userService = new UserService(userDao, searchEngine);
     }
 
     @Test
@@ -39,6 +48,34 @@ class UserServiceTest {
         assertEquals(user.getId(), userDto.getId());
     }
 
+    @Test
+    void existsByIdTest() {
+        when(userDao.existsById(1L))
+                .thenReturn(true);
+
+        assertTrue(userService.existsById(1L));
+        assertFalse(userService.existsById(2L));
+        verify(userDao, never()).findById(any());
+    }
+
+    @Test
+    void createUsersBatchTest() {
+        when(userDao.findEmailsIn(any())).thenReturn(Set.of("taken@mail.ru"));
+        List<UserDto> batch = List.of(
+                new UserDto(null, "user1", "user1@mail.ru"),
+                new UserDto(null, "user2", "taken@mail.ru"),
+                new UserDto(null, "user3", "user1@mail.ru"),
+                new UserDto(null, "user4", "wrong"));
+
+        List<BatchResult<UserDto>> results = userService.createAll(batch);
+
+        assertEquals(BatchResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals("Email уже занят", results.get(1).getError());
+        assertEquals("Email уже занят", results.get(2).getError());
+        assertEquals("Некорректный email", results.get(3).getError());
+        verify(userDao, times(1)).saveAll(argThat(users -> ((List<User>) users).size() == 1));
+    }
+
     @Test
     void updateUserTest() {
 
@@ -97,19 +134,49 @@ class UserServiceTest {
         User user1 = createUser().get(0);
         User user3 = createUser().get(2);
 
-        when(userDao.findAll()).thenReturn(List.of(user1, user3));
-        List<UserDto> users = userService.getAll();
+        when(userDao.findPage(FromSizeRequest.of(0, 10)))
+                .thenReturn(List.of(UserMapper.toUserDto(user1), UserMapper.toUserDto(user3)));
+        List<UserDto> users = userService.getAll(0, 10);
 
         assertNotNull(users);
         assertEquals("user1", users.get(0).getName());
         assertEquals("user3@mail.ru", users.get(1).getEmail());
     }
 
+    @Test
+    void getAllUsersAfterTest() {
+        List<UserDto> page = List.of(UserMapper.toUserDto(createUser().get(0)),
+                UserMapper.toUserDto(createUser().get(1)));
+        when(userDao.findPageAfter(0L, PageRequest.of(0, 2))).thenReturn(page);
+
+        KeysetPage<UserDto> users = userService.getAllAfter("", 2);
+
+        assertEquals(2, users.getItems().size());
+        assertEquals(KeysetCursor.of(null, page.get(1).getId()).encode(), users.getNextCursor());
+    }
+
+    @Test
+    void exportAllUsersTest() {
+        List<User> stored = createUser();
+        when(userDao.streamAll()).thenReturn(stored.stream().map(UserMapper::toUserDto));
+        List<UserDto> exported = new ArrayList<>();
+
+        userService.exportAll(exported::add);
+
+        assertEquals(stored.size(), exported.size());
+        assertEquals("user3", exported.get(2).getName());
+        verify(userDao, never()).findAll();
+    }
+
     @Test
     void deleteUserTest() {
         User user = createUser().get(0);
+        when(userDao.findOwnedItemIds(user.getId())).thenReturn(List.of(4L, 7L));
         userService.delete(user.getId());
         verify(userDao, times(1)).deleteById(user.getId());
+        verify(userDao, times(1)).evictOwnedEntities();
+        verify(searchEngine, times(1)).remove(4L);
+        verify(searchEngine, times(1)).remove(7L);
     }
 
     private List<User> createUser() {